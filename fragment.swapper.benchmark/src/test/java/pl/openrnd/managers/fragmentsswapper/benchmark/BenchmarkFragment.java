@@ -0,0 +1,46 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper.benchmark;
+
+import pl.openrnd.managers.fragmentsswapper.BaseFragment;
+
+/**
+ * BaseFragment with name provided by the benchmark, so back stack entries are distinguishable.
+ */
+public class BenchmarkFragment extends BaseFragment {
+
+    private String mName;
+
+    /**
+     * Class constructor.
+     *
+     * @param name Fragment name.
+     */
+    public BenchmarkFragment(String name) {
+        mName = name;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public String getName() {
+        return mName;
+    }
+}
@@ -0,0 +1,101 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package pl.openrnd.managers.fragmentsswapper.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import pl.openrnd.managers.fragmentsswapper.InMemoryTransactionBackend;
+import pl.openrnd.managers.fragmentsswapper.InitializationParams;
+import pl.openrnd.managers.fragmentsswapper.ScreenManager;
+import pl.openrnd.managers.fragmentsswapper.SingleContainerFragmentSwapper;
+import pl.openrnd.managers.fragmentsswapper.SwapParams;
+
+/**
+ * Benchmark of SingleContainerFragmentSwapper.clearStack() on back stacks of different depth.
+ *
+ * The stack is rebuilt before every invocation, outside of the measured time, so only clearing
+ * of the stack is timed. Because of the per invocation setup the average time of a single call is
+ * reported instead of the throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClearStackBenchmark {
+
+    private static final int CONTENT_FRAME = 1;
+
+    @Param({"1", "10", "100", "1000"})
+    public int mDepth;
+
+    private SingleContainerFragmentSwapper<BenchmarkFragment> mFragmentSwapper;
+
+    private SwapParams mMainContextSwapParams;
+    private ArrayList<BenchmarkFragment> mStackFragments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(new InMemoryTransactionBackend())
+                .operationScheduler(new ImmediateOperationScheduler())
+                .executeImmediately(true)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(SwapperBenchmark.SILENT_LOGGER)
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<BenchmarkFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+
+        mMainContextSwapParams = new SwapParams.Builder().mainContext(true).build();
+
+        mStackFragments = new ArrayList<BenchmarkFragment>(mDepth);
+        for (int i = 0; i < mDepth; ++i) {
+            mStackFragments.add(new BenchmarkFragment("fragment" + i));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void buildStack() {
+        mFragmentSwapper.swapFragments(mMainContextSwapParams, mStackFragments);
+    }
+
+    /**
+     * Clear of the whole back stack.
+     */
+    @Benchmark
+    public void clearStack() {
+        mFragmentSwapper.clearStack();
+    }
+}
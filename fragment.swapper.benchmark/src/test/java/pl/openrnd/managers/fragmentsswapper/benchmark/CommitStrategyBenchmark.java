@@ -0,0 +1,137 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package pl.openrnd.managers.fragmentsswapper.benchmark;
+
+import android.support.v4.app.Fragment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+import pl.openrnd.managers.fragmentsswapper.CommitStrategy;
+import pl.openrnd.managers.fragmentsswapper.FragmentSwapper;
+import pl.openrnd.managers.fragmentsswapper.InMemoryTransactionBackend;
+import pl.openrnd.managers.fragmentsswapper.InitializationParams;
+import pl.openrnd.managers.fragmentsswapper.OnFragmentSwapperListener;
+import pl.openrnd.managers.fragmentsswapper.PopParams;
+import pl.openrnd.managers.fragmentsswapper.ScreenManager;
+import pl.openrnd.managers.fragmentsswapper.SingleContainerFragmentSwapper;
+import pl.openrnd.managers.fragmentsswapper.SwapParams;
+
+/**
+ * Benchmark of the latency between swapFragment() and evaluation of the changed back stack,
+ * reported with OnFragmentSwapperListener.onFragmentEntered(), for every CommitStrategy.
+ *
+ * Transactions committed asynchronously are executed right after the swap request, as FragmentManager
+ * would do in the next loop iteration, so the numbers show the cost of the strategy in the swapper,
+ * without the time the transaction waits in the Looper queue. The swapped fragment is popped after every
+ * invocation, outside of the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommitStrategyBenchmark {
+
+    private static final int CONTENT_FRAME = 1;
+    private static final int DEPTH = 10;
+
+    @Param({"IMMEDIATE", "ASYNC", "ALLOWING_STATE_LOSS"})
+    public CommitStrategy mCommitStrategy;
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private SingleContainerFragmentSwapper<BenchmarkFragment> mFragmentSwapper;
+
+    private SwapParams mSwapParams;
+    private PopParams mPopParams;
+    private BenchmarkFragment mTopFragment;
+    private boolean mIsEvaluated;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mTransactionBackend = new InMemoryTransactionBackend();
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(new ImmediateOperationScheduler())
+                .executeImmediately(true)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(SwapperBenchmark.SILENT_LOGGER)
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<BenchmarkFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+        mFragmentSwapper.setOnFragmentSwapperListener(mOnFragmentSwapperListener);
+
+        mSwapParams = new SwapParams.Builder().commitStrategy(mCommitStrategy).build();
+        mPopParams = new PopParams.Builder().build();
+        mTopFragment = new BenchmarkFragment("top");
+
+        SwapParams stackSwapParams = new SwapParams.Builder().build();
+        for (int i = 0; i < DEPTH; ++i) {
+            mFragmentSwapper.swapFragment(stackSwapParams, new BenchmarkFragment("fragment" + i));
+            mTransactionBackend.executePendingTransactions();
+        }
+    }
+
+    /**
+     * Swap of a new fragment until the back stack change is evaluated.
+     *
+     * @return True if the change was evaluated.
+     */
+    @Benchmark
+    public boolean swapToEvaluation() {
+        mIsEvaluated = false;
+        mFragmentSwapper.swapFragment(mSwapParams, mTopFragment);
+        //asynchronous commit is executed by FragmentManager in one of the next loop iterations
+        mTransactionBackend.executePendingTransactions();
+        return mIsEvaluated;
+    }
+
+    @TearDown(Level.Invocation)
+    public void popTopFragment() {
+        mFragmentSwapper.popFragment(mPopParams);
+        mTransactionBackend.executePendingTransactions();
+    }
+
+    private OnFragmentSwapperListener mOnFragmentSwapperListener = new OnFragmentSwapperListener() {
+        @Override
+        public void onFragmentEntered(FragmentSwapper fragmentSwapper, Fragment fragment) {
+            mIsEvaluated = fragment == mTopFragment;
+        }
+
+        @Override
+        public void onCloseRequested(FragmentSwapper fragmentSwapper) {
+        }
+    };
+}
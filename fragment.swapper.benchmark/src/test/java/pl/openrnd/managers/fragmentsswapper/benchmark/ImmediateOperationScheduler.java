@@ -0,0 +1,46 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper.benchmark;
+
+import pl.openrnd.managers.fragmentsswapper.OperationScheduler;
+
+/**
+ * OperationScheduler that runs posted operations and notifications in place.
+ *
+ * Used together with InitializationParams.Builder.executeImmediately(), so operations requested by
+ * the benchmark are executed synchronously.
+ */
+public class ImmediateOperationScheduler implements OperationScheduler {
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.OperationScheduler
+     */
+    @Override
+    public void post(Runnable operation) {
+        operation.run();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.OperationScheduler
+     */
+    @Override
+    public boolean isSchedulerThread() {
+        return true;
+    }
+}
@@ -0,0 +1,139 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import pl.openrnd.managers.fragmentsswapper.InMemoryTransactionBackend;
+import pl.openrnd.managers.fragmentsswapper.InitializationParams;
+import pl.openrnd.managers.fragmentsswapper.Logger;
+import pl.openrnd.managers.fragmentsswapper.PopParams;
+import pl.openrnd.managers.fragmentsswapper.ScreenManager;
+import pl.openrnd.managers.fragmentsswapper.SingleContainerFragmentSwapper;
+import pl.openrnd.managers.fragmentsswapper.SwapParams;
+
+/**
+ * Benchmarks of SingleContainerFragmentSwapper operations on back stacks of different depth.
+ *
+ * Swapper runs against InMemoryTransactionBackend, so the numbers show the cost of the swapper
+ * itself, without FragmentManager transactions and fragments lifecycle. Every benchmark leaves
+ * the back stack with the same depth it started with.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.benchmark.PopFragmentBenchmark
+ * @see pl.openrnd.managers.fragmentsswapper.benchmark.ClearStackBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SwapperBenchmark {
+
+    private static final int CONTENT_FRAME = 1;
+
+    @Param({"1", "10", "100", "1000"})
+    public int mDepth;
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private SingleContainerFragmentSwapper<BenchmarkFragment> mFragmentSwapper;
+
+    private SwapParams mSwapParams;
+    private SwapParams mMainContextSwapParams;
+    private PopParams mPopParams;
+    private BenchmarkFragment mTopFragment;
+    private ArrayList<BenchmarkFragment> mStackFragments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mTransactionBackend = new InMemoryTransactionBackend();
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(new ImmediateOperationScheduler())
+                .executeImmediately(true)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(SILENT_LOGGER)
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<BenchmarkFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+
+        mSwapParams = new SwapParams.Builder().build();
+        mMainContextSwapParams = new SwapParams.Builder().mainContext(true).build();
+        mPopParams = new PopParams.Builder().build();
+        mTopFragment = new BenchmarkFragment("top");
+
+        mStackFragments = new ArrayList<BenchmarkFragment>(mDepth);
+        for (int i = 0; i < mDepth; ++i) {
+            mStackFragments.add(new BenchmarkFragment("fragment" + i));
+        }
+        buildStack();
+    }
+
+    private void buildStack() {
+        mFragmentSwapper.swapFragments(mMainContextSwapParams, mStackFragments);
+    }
+
+    /**
+     * Swap of a new fragment followed by pop back to the previous one.
+     */
+    @Benchmark
+    public void swapAndPop() {
+        mFragmentSwapper.swapFragment(mSwapParams, mTopFragment);
+        mFragmentSwapper.popFragment(mPopParams);
+        //pop is executed asynchronously, as with FragmentManager
+        mTransactionBackend.executePendingTransactions();
+    }
+
+    /**
+     * Pop executed by the TransactionBackend on its own, e.g. by FragmentManager when the system
+     * back key is handled, evaluated in onBackStackChanged(), followed by swap of the popped fragment.
+     */
+    @Benchmark
+    public void backStackChangedAndSwap() {
+        int topIndex = mTransactionBackend.getBackStackEntryCount() - 1;
+        mTransactionBackend.popBackStackImmediate(topIndex, true);
+        mFragmentSwapper.swapFragment(mSwapParams, mStackFragments.get(topIndex));
+    }
+
+    static final Logger SILENT_LOGGER = new Logger() {
+        @Override
+        public boolean isLoggable(int priority) {
+            return false;
+        }
+
+        @Override
+        public void log(int priority, String tag, String message, Throwable throwable) {
+        }
+    };
+}
@@ -0,0 +1,95 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package pl.openrnd.managers.fragmentsswapper.benchmark;
+
+import org.junit.Test;
+
+import pl.openrnd.managers.fragmentsswapper.CommitStrategy;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs every benchmark method a few times, so broken benchmarks are reported by the unit tests.
+ *
+ * Measurements are not taken here. JMH forks a JVM for every benchmark, which does not get the unit test
+ * classpath with android.jar classes returning default values (testOptions.unitTests.returnDefaultValues),
+ * so benchmarks are run with the jmh task: gradle :fragment.swapper.benchmark:jmh
+ */
+public class SwapperBenchmarkTest {
+
+    private static final int[] DEPTHS = {1, 10, 100};
+    private static final int INVOCATIONS = 3;
+
+    @Test
+    public void swapperBenchmarkRuns() {
+        for (int depth : DEPTHS) {
+            SwapperBenchmark benchmark = new SwapperBenchmark();
+            benchmark.mDepth = depth;
+            benchmark.setUp();
+
+            for (int i = 0; i < INVOCATIONS; ++i) {
+                benchmark.swapAndPop();
+                benchmark.backStackChangedAndSwap();
+            }
+        }
+    }
+
+    @Test
+    public void popFragmentBenchmarkRuns() {
+        for (int depth : DEPTHS) {
+            PopFragmentBenchmark benchmark = new PopFragmentBenchmark();
+            benchmark.mDepth = depth;
+            benchmark.setUp();
+
+            for (int i = 0; i < INVOCATIONS; ++i) {
+                benchmark.swapTopFragment();
+                benchmark.popFragment();
+            }
+        }
+    }
+
+    @Test
+    public void clearStackBenchmarkRuns() {
+        for (int depth : DEPTHS) {
+            ClearStackBenchmark benchmark = new ClearStackBenchmark();
+            benchmark.mDepth = depth;
+            benchmark.setUp();
+
+            for (int i = 0; i < INVOCATIONS; ++i) {
+                benchmark.buildStack();
+                benchmark.clearStack();
+            }
+        }
+    }
+
+    @Test
+    public void commitStrategyBenchmarkEvaluatesSwap() {
+        for (CommitStrategy commitStrategy : CommitStrategy.values()) {
+            CommitStrategyBenchmark benchmark = new CommitStrategyBenchmark();
+            benchmark.mCommitStrategy = commitStrategy;
+            benchmark.setUp();
+
+            for (int i = 0; i < INVOCATIONS; ++i) {
+                assertTrue(benchmark.swapToEvaluation());
+                benchmark.popTopFragment();
+            }
+        }
+    }
+}
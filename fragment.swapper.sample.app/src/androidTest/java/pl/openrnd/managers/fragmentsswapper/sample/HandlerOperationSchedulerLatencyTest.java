@@ -0,0 +1,169 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package pl.openrnd.managers.fragmentsswapper.sample;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import pl.openrnd.managers.fragmentsswapper.HandlerOperationScheduler;
+
+/**
+ * Measures post to run latency of operations posted by HandlerOperationScheduler as synchronous
+ * and asynchronous messages on a flooded Looper.
+ *
+ * Looper and MessageQueue have no working implementation in JVM unit tests, so the measurement runs
+ * on a device: gradle :fragment.swapper.sample.app:connectedAndroidTest. Median latencies are logged
+ * with the HandlerOperationSchedulerLatencyTest tag.
+ *
+ * Every sample reproduces a frame: synchronization barrier is set (as when views traversal is
+ * scheduled), the Looper is flooded with synchronous messages, the operation is posted and the barrier
+ * is removed after the frame interval.
+ */
+public class HandlerOperationSchedulerLatencyTest extends AndroidTestCase {
+    private static final String TAG = HandlerOperationSchedulerLatencyTest.class.getSimpleName();
+
+    private static final int SAMPLES = 50;
+    private static final int FLOOD_MESSAGES = 200;
+    private static final long FLOOD_MESSAGE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long FRAME_INTERVAL_MILLIS = 16;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private HandlerThread mHandlerThread;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        mHandlerThread = new HandlerThread(TAG);
+        mHandlerThread.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mHandlerThread.quit();
+
+        super.tearDown();
+    }
+
+    public void testAsynchronousOperationsAreNotDelayedByBarrier() throws Exception {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            //asynchronous messages are not available, scheduler falls back to synchronous ones
+            return;
+        }
+
+        Looper looper = mHandlerThread.getLooper();
+        long synchronousLatency = measureMedianLatency(looper, false);
+        long asynchronousLatency = measureMedianLatency(looper, true);
+
+        Log.i(TAG, String.format("post to run latency: synchronous[%d us], asynchronous[%d us]",
+                TimeUnit.NANOSECONDS.toMicros(synchronousLatency), TimeUnit.NANOSECONDS.toMicros(asynchronousLatency)));
+
+        assertTrue(asynchronousLatency < synchronousLatency);
+    }
+
+    private long measureMedianLatency(Looper looper, boolean asynchronous) throws Exception {
+        HandlerOperationScheduler scheduler = new HandlerOperationScheduler(looper, asynchronous);
+        Handler floodHandler = new Handler(looper);
+
+        long[] latencies = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; ++i) {
+            latencies[i] = measureLatency(looper, floodHandler, scheduler);
+        }
+
+        Arrays.sort(latencies);
+        return latencies[SAMPLES / 2];
+    }
+
+    private long measureLatency(Looper looper, Handler floodHandler, HandlerOperationScheduler scheduler) throws Exception {
+        final long[] runTime = new long[1];
+        final CountDownLatch operationLatch = new CountDownLatch(1);
+
+        int barrierToken = postSyncBarrier(looper);
+        for (int i = 0; i < FLOOD_MESSAGES; ++i) {
+            floodHandler.post(mFloodMessage);
+        }
+
+        long postTime = System.nanoTime();
+        scheduler.post(new Runnable() {
+            @Override
+            public void run() {
+                runTime[0] = System.nanoTime();
+                operationLatch.countDown();
+            }
+        });
+
+        Thread.sleep(FRAME_INTERVAL_MILLIS);
+        removeSyncBarrier(looper, barrierToken);
+
+        assertTrue(operationLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        waitForIdle(floodHandler);
+
+        return runTime[0] - postTime;
+    }
+
+    private void waitForIdle(Handler handler) throws InterruptedException {
+        final CountDownLatch idleLatch = new CountDownLatch(1);
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                idleLatch.countDown();
+            }
+        });
+
+        assertTrue(idleLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private static int postSyncBarrier(Looper looper) throws Exception {
+        Object target = getBarrierTarget(looper);
+        return (Integer) target.getClass().getMethod("postSyncBarrier").invoke(target);
+    }
+
+    private static void removeSyncBarrier(Looper looper, int token) throws Exception {
+        Object target = getBarrierTarget(looper);
+        target.getClass().getMethod("removeSyncBarrier", int.class).invoke(target, token);
+    }
+
+    private static Object getBarrierTarget(Looper looper) throws Exception {
+        //barriers are hidden API of Looper up to API 22 and of MessageQueue since API 23
+        if (Build.VERSION.SDK_INT >= 23) {
+            return Looper.class.getMethod("getQueue").invoke(looper);
+        } else {
+            return looper;
+        }
+    }
+
+    private final Runnable mFloodMessage = new Runnable() {
+        @Override
+        public void run() {
+            long endTime = System.nanoTime() + FLOOD_MESSAGE_NANOS;
+            while (System.nanoTime() < endTime) {
+                //busy work of a message handled before the operation
+            }
+        }
+    };
+}
@@ -23,12 +23,19 @@ import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentActivity;
 import android.util.Log;
 
+import pl.openrnd.managers.fragmentsswapper.AndroidLogger;
+import pl.openrnd.managers.fragmentsswapper.BaseFragment;
+import pl.openrnd.managers.fragmentsswapper.FragmentPool;
 import pl.openrnd.managers.fragmentsswapper.FragmentSwapper;
 import pl.openrnd.managers.fragmentsswapper.InitializationParams;
+import pl.openrnd.managers.fragmentsswapper.JankStats;
 import pl.openrnd.managers.fragmentsswapper.OnFragmentSwapperListener;
+import pl.openrnd.managers.fragmentsswapper.OnJankStatsListener;
+import pl.openrnd.managers.fragmentsswapper.OnTransitionMetricsListener;
 import pl.openrnd.managers.fragmentsswapper.PopParams;
 import pl.openrnd.managers.fragmentsswapper.SingleContainerFragmentSwapper;
 import pl.openrnd.managers.fragmentsswapper.SwapParams;
+import pl.openrnd.managers.fragmentsswapper.TransitionMetrics;
 import pl.openrnd.managers.fragmentsswapper.sample.fragment.Screen1Fragment;
 import pl.openrnd.managers.fragmentsswapper.sample.fragment.Screen2Fragment;
 import pl.openrnd.managers.fragmentsswapper.sample.fragment.Screen3Fragment;
@@ -37,7 +44,11 @@ import pl.openrnd.managers.fragmentsswapper.sample.fragment.Screen4Fragment;
 public class MainActivity extends FragmentActivity implements SampleScreenManager {
     private static final String TAG = MainActivity.class.getSimpleName();
 
+    private static final int FRAGMENT_POOL_SIZE = 4;
+    private static final long DUPLICATE_SWAP_WINDOW = 500;
+
     private SingleContainerFragmentSwapper mFragmentSwapper;
+    private FragmentPool<BaseFragment> mFragmentPool;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,9 +63,19 @@ public class MainActivity extends FragmentActivity implements SampleScreenManage
         builder.screenManager(this);
         builder.contentFrame(R.id.fragmentContainer);
         builder.fragmentManager(getSupportFragmentManager());
+        builder.logger(new AndroidLogger(BuildConfig.DEBUG ? Log.VERBOSE : Log.INFO));
+        builder.retainedViewsLimit(InitializationParams.RETAINED_VIEWS_AUTO);
+        builder.duplicateSwapWindow(DUPLICATE_SWAP_WINDOW);
+
+        mFragmentPool = new FragmentPool<BaseFragment>(FRAGMENT_POOL_SIZE);
+        builder.fragmentPool(mFragmentPool);
 
         mFragmentSwapper = new SingleContainerFragmentSwapper();
         mFragmentSwapper.setOnFragmentSwapperListener(mOnFragmentSwapperListener);
+        if (BuildConfig.DEBUG) {
+            mFragmentSwapper.setOnTransitionMetricsListener(mOnTransitionMetricsListener);
+            mFragmentSwapper.setOnJankStatsListener(mOnJankStatsListener);
+        }
         mFragmentSwapper.initialize(builder.build());
         mFragmentSwapper.onRestoreInstanceState(savedInstanceState);
     }
@@ -73,6 +94,13 @@ public class MainActivity extends FragmentActivity implements SampleScreenManage
         mFragmentSwapper.onResume();
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        mFragmentSwapper.onTrimMemory(level);
+    }
+
     @Override
     public void onBackPressed() {
         mFragmentSwapper.onBackPressed(new PopParams.Builder().build());
@@ -89,28 +117,31 @@ public class MainActivity extends FragmentActivity implements SampleScreenManage
     public void onSampleScreen1Requested(SwapParams swapParams) {
         Log.v(TAG, "onSampleScreen1Requested()");
 
-        mFragmentSwapper.swapFragment(swapParams, Screen1Fragment.newInstance());
+        mFragmentSwapper.swapFragment(swapParams, mFragmentPool.obtain(Screen1Fragment.class, null));
+        mFragmentSwapper.prefetch(Screen2Fragment.class, null);
     }
 
     @Override
     public void onSampleScreen2Requested(SwapParams swapParams) {
         Log.v(TAG, "onSampleScreen2Requested()");
 
-        mFragmentSwapper.swapFragment(swapParams, Screen2Fragment.newInstance());
+        mFragmentSwapper.swapFragment(swapParams, mFragmentPool.obtain(Screen2Fragment.class, null));
+        mFragmentSwapper.prefetch(Screen3Fragment.class, null);
     }
 
     @Override
     public void onSampleScreen3Requested(SwapParams swapParams) {
         Log.v(TAG, "onSampleScreen3Requested()");
 
-        mFragmentSwapper.swapFragment(swapParams, Screen3Fragment.newInstance());
+        mFragmentSwapper.swapFragment(swapParams, mFragmentPool.obtain(Screen3Fragment.class, null));
+        mFragmentSwapper.prefetch(Screen4Fragment.class, null);
     }
 
     @Override
     public void onSampleScreen4Requested(SwapParams swapParams) {
         Log.v(TAG, "onSampleScreen4Requested()");
 
-        mFragmentSwapper.swapFragment(swapParams, Screen4Fragment.newInstance());
+        mFragmentSwapper.swapFragment(swapParams, mFragmentPool.obtain(Screen4Fragment.class, null));
     }
 
     private OnFragmentSwapperListener mOnFragmentSwapperListener = new OnFragmentSwapperListener() {
@@ -128,4 +159,20 @@ public class MainActivity extends FragmentActivity implements SampleScreenManage
             finish();
         }
     };
+
+    private OnTransitionMetricsListener mOnTransitionMetricsListener = new OnTransitionMetricsListener() {
+
+        @Override
+        public void onTransitionMeasured(FragmentSwapper fragmentSwapper, TransitionMetrics metrics) {
+            Log.v(TAG, "onTransitionMeasured(): " + metrics);
+        }
+    };
+
+    private OnJankStatsListener mOnJankStatsListener = new OnJankStatsListener() {
+
+        @Override
+        public void onJankMeasured(FragmentSwapper fragmentSwapper, JankStats stats) {
+            Log.v(TAG, "onJankMeasured(): " + stats);
+        }
+    };
 }
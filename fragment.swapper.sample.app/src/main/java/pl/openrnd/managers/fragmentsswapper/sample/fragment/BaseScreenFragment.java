@@ -75,17 +75,24 @@ public abstract class BaseScreenFragment extends BaseFragment {
     }
 
     @Override
-    public View onCreateView(LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
-        View root = LayoutInflater.from(getContextActivity()).inflate(R.layout.fragment_screen, null);
+    protected View onCreateContentView(LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.fragment_screen, null);
         initViews(root);
         return root;
     }
 
+    @Override
+    public void onViewCreated(View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        //request code is not known yet when the view is prefetched
+        mInfoView.setText(collectEnterInfo());
+    }
+
     private void initViews(View root) {
         root.setBackgroundResource(getColorResId());
 
         mInfoView = (TextView)root.findViewById(R.id.info);
-        mInfoView.setText(collectEnterInfo());
 
         mBackStackView = (CheckBox)root.findViewById(R.id.addToBackStack);
         mMainContextView = (CheckBox)root.findViewById(R.id.mainContext);
@@ -0,0 +1,45 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package android.support.v4.app;
+
+/**
+ * Helper resetting Fragment state that FragmentManager keeps after the fragment is removed.
+ *
+ * Class is placed in the support library package, as the state is held in package-private fields.
+ * It is used by FragmentPool before a removed fragment instance is reused.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.FragmentPool
+ */
+public final class FragmentStateCleaner {
+
+    private FragmentStateCleaner() {
+    }
+
+    /**
+     * Clears view state saved when the fragment view was destroyed.
+     *
+     * FragmentManager restores the saved view state when the fragment view is created again,
+     * and it is not reset when the fragment is removed.
+     *
+     * @param fragment Fragment removed from the FragmentManager.
+     */
+    public static void clearSavedViewState(Fragment fragment) {
+        fragment.mSavedViewState = null;
+    }
+}
@@ -0,0 +1,66 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.util.Log;
+
+/**
+ * Logger implementation that writes messages to the Android log.
+ *
+ * It is the default logger used by FragmentSwapper (with Log.INFO minimum priority).
+ */
+public class AndroidLogger implements Logger {
+
+    private int mMinPriority;
+
+    /**
+     * Class constructor. Messages with Log.INFO and higher priority are logged.
+     */
+    public AndroidLogger() {
+        this(Log.INFO);
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param minPriority Minimum priority of logged messages, e.g. Log.VERBOSE in debug builds.
+     */
+    public AndroidLogger(int minPriority) {
+        mMinPriority = minPriority;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.Logger
+     */
+    @Override
+    public boolean isLoggable(int priority) {
+        return priority >= mMinPriority;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.Logger
+     */
+    @Override
+    public void log(int priority, String tag, String message, Throwable throwable) {
+        if (throwable != null) {
+            message = message + '\n' + Log.getStackTraceString(throwable);
+        }
+        Log.println(priority, tag, message);
+    }
+}
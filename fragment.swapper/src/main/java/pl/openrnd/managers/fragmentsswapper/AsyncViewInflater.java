@@ -0,0 +1,118 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Helper inflating layouts on a background thread.
+ *
+ * Layout is inflated with a clone of provided LayoutInflater, as LayoutInflater instances are not
+ * thread-safe. If inflation fails on the background thread, e.g. because one of the views requires
+ * a Looper, the layout is inflated again on the main thread.
+ */
+final class AsyncViewInflater {
+
+    /**
+     * Interface used for getting inflated view.
+     */
+    interface Callback {
+
+        /**
+         * Method called on the main thread with inflated view.
+         *
+         * @param view Inflated view.
+         */
+        void onInflated(View view);
+    }
+
+    private static final String THREAD_NAME = "FragmentSwapper-inflater";
+
+    private static ExecutorService sExecutor;
+    private static Handler sMainHandler;
+
+    private AsyncViewInflater() {
+    }
+
+    /**
+     * Inflates layout on a background thread. Method must be called on the main thread.
+     *
+     * @param inflater LayoutInflater of the Activity that the view will be attached to.
+     * @param layoutResId Layout resource id.
+     * @param callback Callback object receiving inflated view on the main thread.
+     */
+    static void inflate(final LayoutInflater inflater, final int layoutResId, final Callback callback) {
+        final LayoutInflater backgroundInflater = inflater.cloneInContext(inflater.getContext());
+
+        try {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    View view = null;
+                    try {
+                        view = inflateLayout(backgroundInflater, layoutResId);
+                    } catch (RuntimeException exc) {
+                        //view is inflated again on the main thread
+                    }
+
+                    final View result = view;
+                    sMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onInflated(result != null ? result : inflateLayout(inflater, layoutResId));
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException exc) {
+            callback.onInflated(inflateLayout(inflater, layoutResId));
+        }
+    }
+
+    private static View inflateLayout(LayoutInflater inflater, int layoutResId) {
+        //root is used only for generating layout parameters of the inflated view
+        Context context = inflater.getContext();
+        return inflater.inflate(layoutResId, new FrameLayout(context), false);
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, THREAD_NAME);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+}
@@ -22,7 +22,12 @@ import android.app.Activity;
 import android.content.res.Resources;
 import android.os.Bundle;
 import android.support.v4.app.Fragment;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
 import android.view.animation.Animation;
+import android.view.animation.AnimationUtils;
+import android.widget.FrameLayout;
 
 import pl.openrnd.utils.ViewUtils;
 
@@ -32,6 +37,10 @@ import pl.openrnd.utils.ViewUtils;
 public class BaseFragment extends Fragment implements FragmentDescriptor {
 
     private FragmentDescriptorImpl mFragmentDescriptor;
+    private View mPrefetchedView;
+    private FrameLayout mAsyncPlaceholder;
+    private Animation mPendingEnterAnimation;
+    private Animation mEmptyAnimation;
 
     /**
      * Base fragment constructor.
@@ -70,26 +79,222 @@ public class BaseFragment extends Fragment implements FragmentDescriptor {
         mFragmentDescriptor.onAttach(activity);
     }
 
+    /**
+     * @see android.support.v4.app.Fragment
+     *
+     * Method returns prefetched view if available. Otherwise if the fragment provides
+     * asynchronous content layout, placeholder is returned and the layout is inflated on
+     * a background thread. Otherwise view is created with onCreateContentView().
+     */
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        View view = mPrefetchedView;
+        mPrefetchedView = null;
+
+        if ((view != null) && (savedInstanceState == null)) {
+            return view;
+        }
+
+        int layoutResId = getAsyncContentLayoutResId();
+        if (layoutResId == 0) {
+            return onCreateContentView(inflater, container, savedInstanceState);
+        }
+
+        if (savedInstanceState != null) {
+            //saved view state is restored right after the view is created, so it can not wait for inflation
+            view = inflater.inflate(layoutResId, container, false);
+            onAsyncContentViewCreated(view);
+            return view;
+        }
+
+        return createAsyncContentView(inflater, layoutResId);
+    }
+
+    private View createAsyncContentView(LayoutInflater inflater, int layoutResId) {
+        final FrameLayout placeholder = new FrameLayout(inflater.getContext());
+        mAsyncPlaceholder = placeholder;
+
+        AsyncViewInflater.inflate(inflater, layoutResId, new AsyncViewInflater.Callback() {
+            @Override
+            public void onInflated(View view) {
+                if (mAsyncPlaceholder != placeholder) {
+                    //fragment view was destroyed in the meantime
+                    return;
+                }
+                mAsyncPlaceholder = null;
+
+                placeholder.addView(view);
+                onAsyncContentViewCreated(view);
+
+                if (mPendingEnterAnimation != null) {
+                    Animation animation = mPendingEnterAnimation;
+                    mPendingEnterAnimation = null;
+                    placeholder.startAnimation(animation);
+                }
+            }
+        });
+
+        return placeholder;
+    }
+
+    /**
+     * @see android.support.v4.app.Fragment
+     */
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        mFragmentDescriptor.onDestroy();
+    }
+
+    /**
+     * @see android.support.v4.app.Fragment
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+
+        mAsyncPlaceholder = null;
+        mPendingEnterAnimation = null;
+    }
+
+    /**
+     * Gets information if the fragment view has to be rendered into a hardware layer
+     * while its transition animation runs.
+     *
+     * Default implementation returns true. Fragments which views change their content while
+     * animating (e.g. playing video) should return false.
+     *
+     * @return True if hardware layer has to be used, false otherwise.
+     */
+    protected boolean isHardwareLayerAnimationEnabled() {
+        return true;
+    }
+
+    /**
+     * Gets layout resource that has to be inflated on a background thread.
+     *
+     * If provided, the fragment view is an empty placeholder until the layout is inflated and
+     * enter animation of the fragment starts when the layout is added to the placeholder.
+     * Layout must not contain views that can not be created on a background thread,
+     * otherwise it is inflated on the main thread.
+     *
+     * Default implementation returns 0, so the view is created with onCreateContentView().
+     *
+     * @return Layout resource id or 0.
+     */
+    protected int getAsyncContentLayoutResId() {
+        return 0;
+    }
+
+    /**
+     * Method called on the main thread when the layout provided by getAsyncContentLayoutResId()
+     * is inflated and added to the fragment view.
+     *
+     * @param view Inflated layout.
+     */
+    protected void onAsyncContentViewCreated(View view) {
+    }
+
+    /**
+     * Creates fragment content view.
+     *
+     * Method is called from onCreateView() or from prefetchView(), before the fragment is added.
+     * In the latter case the fragment is not attached to the Activity, so the view must be created
+     * with provided LayoutInflater only and must not depend on the fragment request code.
+     *
+     * Default implementation returns null, so the fragment has no view and prefetch is not supported.
+     *
+     * @param inflater LayoutInflater object.
+     * @param container Container that the view will be added to.
+     * @param savedInstanceState Bundle object with saved state or null.
+     * @return Fragment content view.
+     */
+    protected View onCreateContentView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        return null;
+    }
+
     /**
      * @see android.support.v4.app.Fragment
      *
      * Method checks if animations are currently enabled in FragmentSwapper that
      * the fragment is attache to. If animations are disabled empty animation is
      * returned.
+     *
+     * FragmentSwapper is notified when enter animation of the fragment ends.
+     * Fragment view is rendered into a hardware layer while its enter or exit animation runs.
+     *
+     * @see #isHardwareLayerAnimationEnabled()
      */
     @Override
     public Animation onCreateAnimation(int transit, boolean enter, int nextAnim) {
         FragmentSwapper fragmentSwapper = mFragmentDescriptor.getFragmentSwapper();
 
         if ((fragmentSwapper == null) || fragmentSwapper.isAnimationEnabled()) {
-            return super.onCreateAnimation(transit, enter, nextAnim);
-        } else {
-            Animation animation = new Animation() {};
-            animation.setDuration(0);
+            Animation animation = super.onCreateAnimation(transit, enter, nextAnim);
+            if ((animation == null) && (nextAnim != 0)) {
+                //animation is loaded the same way FragmentManager does it, to observe the end of
+                //enter animation and to render both enter and exit animations into a hardware layer
+                animation = AnimationUtils.loadAnimation(getActivity(), nextAnim);
+            }
+
+            if (enter && (fragmentSwapper != null)) {
+                if (animation != null) {
+                    animation.setAnimationListener(mEnterAnimationListener);
+                } else {
+                    fragmentSwapper.onEnterAnimationEnd(this);
+                }
+            }
+
+            if ((animation != null) && isHardwareLayerAnimationEnabled()) {
+                animation = HardwareLayerAnimation.wrap(animation, getView(), getActivity());
+            }
+
+            if (enter && (animation != null) && (mAsyncPlaceholder != null)) {
+                //enter animation starts when the content layout is inflated
+                mPendingEnterAnimation = animation;
+                animation = createEmptyAnimation();
+            }
             return animation;
+        } else {
+            if (enter && (fragmentSwapper != null)) {
+                fragmentSwapper.onEnterAnimationEnd(this);
+            }
+
+            return createEmptyAnimation();
+        }
+    }
+
+    private Animation createEmptyAnimation() {
+        //FragmentManager sets its own listener on exit animation, so the animation is not shared between fragments
+        if (mEmptyAnimation == null) {
+            mEmptyAnimation = new Animation() {};
+            mEmptyAnimation.setDuration(0);
+        } else {
+            mEmptyAnimation.setAnimationListener(null);
+            mEmptyAnimation.reset();
         }
+        return mEmptyAnimation;
     }
 
+    private Animation.AnimationListener mEnterAnimationListener = new Animation.AnimationListener() {
+        @Override
+        public void onAnimationStart(Animation animation) {
+        }
+
+        @Override
+        public void onAnimationEnd(Animation animation) {
+            FragmentSwapper fragmentSwapper = mFragmentDescriptor.getFragmentSwapper();
+            if (fragmentSwapper != null) {
+                fragmentSwapper.onEnterAnimationEnd(BaseFragment.this);
+            }
+        }
+
+        @Override
+        public void onAnimationRepeat(Animation animation) {
+        }
+    };
+
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
      */
@@ -132,6 +337,16 @@ public class BaseFragment extends Fragment implements FragmentDescriptor {
         mFragmentDescriptor.setResult(resultCode, resultData);
     }
 
+    /**
+     * Sets fragments result code and value.
+     *
+     * @param resultCode Result code.
+     * @param resultValue Result value object, it should implement Parcelable to survive process death.
+     */
+    protected void setResult(int resultCode, Object resultValue) {
+        mFragmentDescriptor.setResult(resultCode, resultValue);
+    }
+
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
      */
@@ -148,6 +363,14 @@ public class BaseFragment extends Fragment implements FragmentDescriptor {
         return mFragmentDescriptor.getResultData();
     }
 
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public Object getResultValue() {
+        return mFragmentDescriptor.getResultValue();
+    }
+
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
      */
@@ -164,6 +387,14 @@ public class BaseFragment extends Fragment implements FragmentDescriptor {
         mFragmentDescriptor.onFragmentResult(requestCode, resultCode, data);
     }
 
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onFragmentResult(Integer requestCode, int resultCode, Object value) {
+        mFragmentDescriptor.onFragmentResult(requestCode, resultCode, value);
+    }
+
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
      */
@@ -180,6 +411,45 @@ public class BaseFragment extends Fragment implements FragmentDescriptor {
         ViewUtils.hideSoftKeyboard(getContextActivity());
     }
 
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onFragmentRecycled() {
+        mFragmentDescriptor.onFragmentRecycled();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     *
+     * View is created with onCreateContentView().
+     */
+    @Override
+    public boolean prefetchView(LayoutInflater inflater, ViewGroup container) {
+        if (isAdded()) {
+            return false;
+        }
+
+        mPrefetchedView = onCreateContentView(inflater, container, null);
+        return mPrefetchedView != null;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void releasePrefetchedView() {
+        mPrefetchedView = null;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onReleaseMemory(int level) {
+        mFragmentDescriptor.onReleaseMemory(level);
+    }
+
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
      */
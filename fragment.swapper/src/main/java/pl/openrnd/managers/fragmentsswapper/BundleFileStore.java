@@ -0,0 +1,157 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Parcel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Helper storing Bundle objects in files in the application cache directory.
+ */
+final class BundleFileStore {
+
+    private static final String DIRECTORY_NAME = "fragment_swapper";
+
+    /**
+     * Age after which files not read by restored fragments are deleted, in milliseconds.
+     *
+     * File is written again every time the state is saved, so only files left by a killed process
+     * or not deleted by destroyed fragments get that old.
+     */
+    private static final long MAX_FILE_AGE = 7L * 24 * 60 * 60 * 1000;
+
+    private static boolean sStaleFilesDeleted;
+
+    private BundleFileStore() {
+    }
+
+    /**
+     * Marshalls Bundle object to bytes.
+     *
+     * @param bundle Bundle object.
+     * @return Marshalled Bundle.
+     */
+    static byte[] marshall(Bundle bundle) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeBundle(bundle);
+            return parcel.marshall();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /**
+     * Writes marshalled Bundle to the file with provided name.
+     *
+     * @param context Context object.
+     * @param fileName File name.
+     * @param data Marshalled Bundle.
+     * @throws IOException The exception is thrown when the file can not be written.
+     */
+    static void write(Context context, String fileName, byte[] data) throws IOException {
+        File directory = new File(context.getCacheDir(), DIRECTORY_NAME);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        deleteStaleFiles(directory);
+
+        FileOutputStream outputStream = new FileOutputStream(new File(directory, fileName));
+        try {
+            outputStream.write(data);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Deletes the file with provided name if it exists.
+     *
+     * @param context Context object.
+     * @param fileName File name.
+     */
+    static void delete(Context context, String fileName) {
+        File file = new File(new File(context.getCacheDir(), DIRECTORY_NAME), fileName);
+        file.delete();
+    }
+
+    private static synchronized void deleteStaleFiles(File directory) {
+        //directory is checked once per process, before the first file is written
+        if (sStaleFilesDeleted) {
+            return;
+        }
+        sStaleFilesDeleted = true;
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long minModifiedTime = System.currentTimeMillis() - MAX_FILE_AGE;
+        for (File file : files) {
+            if (file.lastModified() < minModifiedTime) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Reads Bundle from the file with provided name and deletes the file.
+     *
+     * @param context Context object.
+     * @param fileName File name.
+     * @param classLoader ClassLoader used for reading Bundle values.
+     * @return Bundle object.
+     * @throws IOException The exception is thrown when the file can not be read.
+     */
+    static Bundle read(Context context, String fileName, ClassLoader classLoader) throws IOException {
+        File file = new File(new File(context.getCacheDir(), DIRECTORY_NAME), fileName);
+
+        byte[] data = new byte[(int) file.length()];
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            int offset = 0;
+            while (offset < data.length) {
+                int count = inputStream.read(data, offset, data.length - offset);
+                if (count < 0) {
+                    throw new IOException("Unexpected end of file " + file);
+                }
+                offset += count;
+            }
+        } finally {
+            inputStream.close();
+            file.delete();
+        }
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.unmarshall(data, 0, data.length);
+            parcel.setDataPosition(0);
+            return parcel.readBundle(classLoader);
+        } finally {
+            parcel.recycle();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * Strategies of committing fragments transactions of swap operations.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.SwapParams.Builder#commitStrategy
+ * @see pl.openrnd.managers.fragmentsswapper.InitializationParams.Builder#commitStrategy
+ */
+public enum CommitStrategy {
+
+    /**
+     * Transaction is committed and executed immediately, together with all transactions pending
+     * in the FragmentManager.
+     */
+    IMMEDIATE,
+
+    /**
+     * Transaction is committed and executed by the FragmentManager in one of the next loop iterations.
+     *
+     * Used only by swaps that add a back stack entry, other swaps are executed immediately.
+     */
+    ASYNC,
+
+    /**
+     * Transaction is committed allowing state loss and executed immediately.
+     *
+     * Swap is executed even if holding Activity state is saved, instead of waiting until
+     * the Activity is resumed. Fragments stack changed this way may not be restored, so the strategy
+     * is meant for non-critical screens. Swaps that have to pop the back stack are still postponed.
+     */
+    ALLOWING_STATE_LOSS
+}
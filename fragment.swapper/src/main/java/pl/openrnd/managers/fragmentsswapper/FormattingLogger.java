@@ -0,0 +1,128 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.util.Log;
+
+/**
+ * Helper that formats messages only when they are going to be logged by the Logger.
+ *
+ * Methods with fixed number of arguments are used, so no arguments array is created on calls
+ * that are not logged. Overloads taking int arguments box them only when the message is logged.
+ */
+final class FormattingLogger {
+
+    private Logger mLogger;
+    private String mTag;
+
+    FormattingLogger(Logger logger, String tag) {
+        mLogger = logger;
+        mTag = tag;
+    }
+
+    void v(String message) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, message, null);
+        }
+    }
+
+    void v(String format, Object arg1) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1), null);
+        }
+    }
+
+    void v(String format, Object arg1, Object arg2) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    void v(String format, Object arg1, Object arg2, Object arg3) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1, arg2, arg3), null);
+        }
+    }
+
+    void v(String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1, arg2, arg3, arg4), null);
+        }
+    }
+
+    void v(String format, int arg1) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1), null);
+        }
+    }
+
+    void v(String format, int arg1, int arg2) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    void v(String format, Object arg1, int arg2) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    void v(String format, Object arg1, int arg2, boolean arg3) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1, arg2, arg3), null);
+        }
+    }
+
+    void v(String format, Object arg1, Object arg2, int arg3, boolean arg4) {
+        if (mLogger.isLoggable(Log.VERBOSE)) {
+            mLogger.log(Log.VERBOSE, mTag, String.format(format, arg1, arg2, arg3, arg4), null);
+        }
+    }
+
+    void w(String format, Object arg1) {
+        if (mLogger.isLoggable(Log.WARN)) {
+            mLogger.log(Log.WARN, mTag, String.format(format, arg1), null);
+        }
+    }
+
+    void w(String format, Object arg1, Object arg2) {
+        if (mLogger.isLoggable(Log.WARN)) {
+            mLogger.log(Log.WARN, mTag, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    void w(String format, int arg1) {
+        if (mLogger.isLoggable(Log.WARN)) {
+            mLogger.log(Log.WARN, mTag, String.format(format, arg1), null);
+        }
+    }
+
+    void w(String format, Object arg1, int arg2) {
+        if (mLogger.isLoggable(Log.WARN)) {
+            mLogger.log(Log.WARN, mTag, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    void e(String message, Throwable throwable) {
+        if (mLogger.isLoggable(Log.ERROR)) {
+            mLogger.log(Log.ERROR, mTag, message, throwable);
+        }
+    }
+}
@@ -21,6 +21,8 @@ package pl.openrnd.managers.fragmentsswapper;
 import android.app.Activity;
 import android.content.res.Resources;
 import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
 
 /**
  * Interface that has to be implemented by fragments
@@ -59,6 +61,13 @@ public interface FragmentDescriptor {
      */
     Bundle getResultData();
 
+    /**
+     * Gets object with fragment result value.
+     *
+     * @return Result value or null if not provided while fragment closing.
+     */
+    Object getResultValue();
+
     /**
      * Sets fragment request code.
      *
@@ -80,6 +89,18 @@ public interface FragmentDescriptor {
      */
     void onFragmentResult(Integer requestCode, int resultCode, Bundle data);
 
+    /**
+     * Method called when the fragment that was started is exiting with result value.
+     *
+     * Result value is passed by reference. It is kept only if it implements Parcelable
+     * when the fragment state is saved.
+     *
+     * @param requestCode Fragments request code or null if fragment was not started with request code.
+     * @param resultCode Fragments result code.
+     * @param value Result value object.
+     */
+    void onFragmentResult(Integer requestCode, int resultCode, Object value);
+
     /**
      * Method called when the fragment is paused.
      */
@@ -90,6 +111,47 @@ public interface FragmentDescriptor {
      */
     void onFragmentResume();
 
+    /**
+     * Method called when the fragment instance is reused by FragmentPool.
+     *
+     * Reused instance was either never added to the FragmentManager or finally removed from it,
+     * so FragmentManager has reset its Fragment state and the pool has cleared its saved view state.
+     * Implementation has to reset its own state of the previous use: request code, result and
+     * fields set by the application or in lifecycle callbacks. Prefetched view is kept.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentPool
+     */
+    void onFragmentRecycled();
+
+    /**
+     * Creates fragment view ahead of time, before the fragment is added.
+     *
+     * Created view has to be used when the fragment creates its view for the first time.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper#prefetch
+     *
+     * @param inflater LayoutInflater of the Activity that the fragment will be attached to.
+     * @param container Container that the fragment view will be added to.
+     * @return True if view was created, false if prefetch is not supported by the fragment.
+     */
+    boolean prefetchView(LayoutInflater inflater, ViewGroup container);
+
+    /**
+     * Releases view created by prefetchView() that was not used yet.
+     */
+    void releasePrefetchedView();
+
+    /**
+     * Method called by FragmentSwapper when the memory is running low.
+     *
+     * Fragment should release its caches, e.g. decoded bitmaps that can be loaded again.
+     *
+     * @see android.content.ComponentCallbacks2
+     *
+     * @param level Memory trim level.
+     */
+    void onReleaseMemory(int level);
+
     /**
      * Assigns FragmentSwapper that the fragment is attached to.
      *
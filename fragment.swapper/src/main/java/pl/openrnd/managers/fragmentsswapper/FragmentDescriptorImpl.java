@@ -21,8 +21,13 @@ package pl.openrnd.managers.fragmentsswapper;
 import android.app.Activity;
 import android.content.res.Resources;
 import android.os.Bundle;
+import android.os.Parcelable;
 import android.support.v4.app.Fragment;
-import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import java.io.IOException;
+import java.util.UUID;
 
 /**
  * Base implementation of FragmentDescription.
@@ -38,12 +43,18 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
     private static final String DATA_REQUEST_CODE = String.format("%s_%s", TAG, "DATA_REQUEST_CODE");
     private static final String DATA_RESULT_CODE = String.format("%s_%s", TAG, "DATA_RESULT_CODE");
     private static final String DATA_RESULT_BUNDLE = String.format("%s_%s", TAG, "DATA_RESULT_BUNDLE");
+    private static final String DATA_RESULT_VALUE = String.format("%s_%s", TAG, "DATA_RESULT_VALUE");
+    private static final String DATA_RESULT_FILE = String.format("%s_%s", TAG, "DATA_RESULT_FILE");
 
     private FragmentSwapper mFragmentSwapper;
+    private FormattingLogger mLog;
     private Activity mActivity;
+    private String mName;
 
     private Integer mResultCode;
     private Bundle mResultData;
+    private Object mResultValue;
+    private String mResultFileName;
 
     private Fragment mFragment;
 
@@ -54,6 +65,7 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
      */
     public FragmentDescriptorImpl(Fragment fragment) {
         mFragment = fragment;
+        mName = fragment.getClass().getSimpleName();
     }
 
     /**
@@ -72,7 +84,10 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
      */
     @Override
     public void assignFragmentSwapper(FragmentSwapper fragmentSwapper) {
-        mFragmentSwapper = fragmentSwapper;
+        if (mFragmentSwapper != fragmentSwapper) {
+            mFragmentSwapper = fragmentSwapper;
+            mLog = fragmentSwapper != null ? new FormattingLogger(fragmentSwapper.getLogger(), TAG) : null;
+        }
     }
 
     /**
@@ -88,7 +103,7 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
      */
     @Override
     public String getName() {
-        return mFragment.getClass().getSimpleName();
+        return mName;
     }
 
     /**
@@ -103,8 +118,6 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
             result = arguments.getInt(DATA_REQUEST_CODE);
         }
 
-        Log.v(TAG, String.format("getResultData(): result[%s]", result));
-
         return result;
     }
 
@@ -117,12 +130,19 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
      */
     public void onCreate(Bundle savedInstanceState) {
         if (savedInstanceState != null) {
-            if (savedInstanceState.containsKey(DATA_REQUEST_CODE)) {
-                mResultCode = savedInstanceState.getInt(DATA_REQUEST_CODE, RESULT_CANCELED);
+            if (savedInstanceState.containsKey(DATA_RESULT_CODE)) {
+                mResultCode = savedInstanceState.getInt(DATA_RESULT_CODE, RESULT_CANCELED);
             }
 
             if (savedInstanceState.containsKey(DATA_RESULT_BUNDLE)) {
                 mResultData = savedInstanceState.getBundle(DATA_RESULT_BUNDLE);
+            } else if (savedInstanceState.containsKey(DATA_RESULT_FILE)) {
+                mResultData = readResultData(savedInstanceState.getString(DATA_RESULT_FILE));
+            }
+
+            if (savedInstanceState.containsKey(DATA_RESULT_VALUE)) {
+                savedInstanceState.setClassLoader(mFragment.getClass().getClassLoader());
+                mResultValue = savedInstanceState.getParcelable(DATA_RESULT_VALUE);
             }
         }
     }
@@ -140,10 +160,102 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
                 outState.putInt(DATA_RESULT_CODE, mResultCode);
             }
 
-            if (mResultData != null) {
-                outState.putBundle(DATA_RESULT_BUNDLE, mResultData);
+            boolean isResultDataInFile = (mResultData != null) && writeResultData(outState);
+            if (!isResultDataInFile) {
+                if (mResultData != null) {
+                    outState.putBundle(DATA_RESULT_BUNDLE, mResultData);
+                }
+                deleteResultFile();
             }
+
+            if (mResultValue instanceof Parcelable) {
+                outState.putParcelable(DATA_RESULT_VALUE, (Parcelable) mResultValue);
+            } else if ((mResultValue != null) && (mLog != null)) {
+                mLog.w("onSaveInstanceState(): result value of [%s] is not Parcelable and is not saved", mName);
+            }
+        }
+    }
+
+    private boolean writeResultData(Bundle outState) {
+        SavedStateProfiler savedStateProfiler = mFragmentSwapper != null ? mFragmentSwapper.getSavedStateProfiler() : null;
+        if ((savedStateProfiler == null) || (savedStateProfiler.getResultSizeBudget() == SavedStateProfiler.UNLIMITED)
+                || (mActivity == null)) {
+            return false;
+        }
+
+        byte[] data = BundleFileStore.marshall(mResultData);
+        if (!savedStateProfiler.isOverResultSizeBudget(data.length)) {
+            return false;
         }
+
+        if (mResultFileName == null) {
+            mResultFileName = String.format("%s_%s", mName, UUID.randomUUID());
+        }
+
+        if (savedStateProfiler.isMeasuring()) {
+            //state saved for measuring is discarded, only the size of the file reference counts
+            outState.putString(DATA_RESULT_FILE, mResultFileName);
+            return true;
+        }
+
+        try {
+            BundleFileStore.write(mActivity, mResultFileName, data);
+        } catch (IOException e) {
+            mLog.w("writeResultData(): result data kept in saved state, %s", e.getMessage());
+            return false;
+        }
+        outState.putString(DATA_RESULT_FILE, mResultFileName);
+
+        mLog.v("writeResultData(): file[%s], size[%d]", mResultFileName, data.length);
+
+        OnSavedStateListener listener = savedStateProfiler.getListener();
+        if (listener != null) {
+            listener.onResultSpilled(mFragmentSwapper, mName, data.length);
+        }
+        return true;
+    }
+
+    private void deleteResultFile() {
+        SavedStateProfiler savedStateProfiler = mFragmentSwapper != null ? mFragmentSwapper.getSavedStateProfiler() : null;
+        if ((mResultFileName == null) || (mActivity == null)
+                || ((savedStateProfiler != null) && savedStateProfiler.isMeasuring())) {
+            return;
+        }
+
+        //file written for the previous saved state is not referenced anymore
+        BundleFileStore.delete(mActivity, mResultFileName);
+        mResultFileName = null;
+    }
+
+    /**
+     * Method must be called in onDestroy() method of holding fragment.
+     *
+     * Result data file is deleted if the fragment is not going to be restored. Removed fragment
+     * is returned to the FragmentPool of its FragmentSwapper.
+     *
+     * @see android.support.v4.app.Fragment
+     */
+    public void onDestroy() {
+        if ((mActivity != null) && (mFragment.isRemoving() || mActivity.isFinishing())) {
+            deleteResultFile();
+        }
+
+        if (mFragment.isRemoving() && (mFragmentSwapper != null)) {
+            mFragmentSwapper.onFragmentRemoved(mFragment);
+        }
+    }
+
+    private Bundle readResultData(String fileName) {
+        Bundle result = null;
+
+        try {
+            result = BundleFileStore.read(mActivity, fileName, mFragment.getClass().getClassLoader());
+            //saved again under the same name if result data is still too large
+            mResultFileName = fileName;
+        } catch (IOException e) {
+            //result data is lost, fragment is not assigned to FragmentSwapper and logger yet
+        }
+        return result;
     }
 
     /**
@@ -155,6 +267,22 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
     public void setResult(int resultCode, Bundle resultData) {
         mResultCode = resultCode;
         mResultData = resultData;
+        mResultValue = null;
+    }
+
+    /**
+     * Sets holding fragments result code and value.
+     *
+     * Result value is passed to the fragment by reference. It is saved with the fragment state
+     * only if it implements Parcelable.
+     *
+     * @param resultCode Result code.
+     * @param resultValue Result value object.
+     */
+    public void setResult(int resultCode, Object resultValue) {
+        mResultCode = resultCode;
+        mResultData = null;
+        mResultValue = resultValue;
     }
 
     /**
@@ -166,11 +294,7 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
      */
     @Override
     public int getResultCode() {
-        int result = mResultCode == null ? RESULT_CANCELED : mResultCode;
-
-        Log.v(TAG, String.format("getResultCode(): result[%d]", result));
-
-        return result;
+        return mResultCode == null ? RESULT_CANCELED : mResultCode;
     }
 
     /**
@@ -182,11 +306,21 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
      */
     @Override
     public Bundle getResultData() {
-        Log.v(TAG, String.format("getResultData(): result[%b]", mResultData != null));
-
         return mResultData;
     }
 
+    /**
+     * Gets holding fragment result value.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     *
+     * @return Holding fragment result value.
+     */
+    @Override
+    public Object getResultValue() {
+        return mResultValue;
+    }
+
     /**
      * Sets holding fragment request code.
      *
@@ -215,17 +349,29 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
      */
     @Override
     public void onFragmentResult(Integer requestCode, int resultCode, Bundle data) {
-        Log.v(TAG, String.format("onFragmentResult(): requestCode[%s], resultCode[%d], data[%b]", requestCode, resultCode, data != null));
+        if (mLog != null) {
+            mLog.v("onFragmentResult(): requestCode[%s], resultCode[%d], data[%b]", requestCode, resultCode, data != null);
+        }
     }
 
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
      */
     @Override
-    public void onBackPressed(PopParams popParams) {
-        Log.v(TAG, "onBackPressed()");
+    public void onFragmentResult(Integer requestCode, int resultCode, Object value) {
+        if (mLog != null) {
+            mLog.v("onFragmentResult(): requestCode[%s], resultCode[%d], value[%b]", requestCode, resultCode, value != null);
+        }
+    }
 
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onBackPressed(PopParams popParams) {
         if (mFragmentSwapper != null) {
+            mLog.v("onBackPressed()");
+
             mFragmentSwapper.popFragment(popParams);
         }
     }
@@ -246,6 +392,51 @@ public class FragmentDescriptorImpl implements FragmentDescriptor {
 
     }
 
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onFragmentRecycled() {
+        Bundle arguments = mFragment.getArguments();
+        if (arguments != null) {
+            arguments.remove(DATA_REQUEST_CODE);
+        }
+
+        mResultCode = null;
+        mResultData = null;
+        mResultValue = null;
+        mResultFileName = null;
+        mActivity = null;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     *
+     * View prefetch is not supported by default.
+     */
+    @Override
+    public boolean prefetchView(LayoutInflater inflater, ViewGroup container) {
+        return false;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void releasePrefetchedView() {
+
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onReleaseMemory(int level) {
+        if (mLog != null) {
+            mLog.v("onReleaseMemory(): level[%d]", level);
+        }
+    }
+
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
      */
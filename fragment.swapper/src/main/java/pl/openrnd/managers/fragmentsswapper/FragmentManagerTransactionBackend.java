@@ -0,0 +1,239 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.FragmentTransaction;
+
+/**
+ * TransactionBackend implementation that wraps FragmentManager.
+ *
+ * @see android.support.v4.app.FragmentManager
+ */
+public class FragmentManagerTransactionBackend implements TransactionBackend {
+
+    private FragmentManager mFragmentManager;
+    private FragmentManagerTransaction mTransaction = new FragmentManagerTransaction();
+
+    /**
+     * Class constructor.
+     *
+     * @param fragmentManager FragmentManager associated with the FragmentSwapper context Activity.
+     */
+    public FragmentManagerTransactionBackend(FragmentManager fragmentManager) {
+        if (fragmentManager == null) {
+            throw new IllegalArgumentException("Argument is mandatory");
+        }
+
+        mFragmentManager = fragmentManager;
+    }
+
+    /**
+     * Gets wrapped FragmentManager.
+     *
+     * @return FragmentManager object.
+     */
+    public FragmentManager getFragmentManager() {
+        return mFragmentManager;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public void addOnBackStackChangedListener(final OnBackStackChangedListener listener) {
+        mFragmentManager.addOnBackStackChangedListener(new FragmentManager.OnBackStackChangedListener() {
+            @Override
+            public void onBackStackChanged() {
+                listener.onBackStackChanged();
+            }
+        });
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public int getBackStackEntryCount() {
+        return mFragmentManager.getBackStackEntryCount();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public String getBackStackEntryName(int entryIndex) {
+        return mFragmentManager.getBackStackEntryAt(entryIndex).getName();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public Fragment findFragmentById(int containerId) {
+        return mFragmentManager.findFragmentById(containerId);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public Fragment findFragmentByTag(String tag) {
+        return mFragmentManager.findFragmentByTag(tag);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public boolean isDetached(Fragment fragment) {
+        return fragment.isDetached();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public boolean isHidden(Fragment fragment) {
+        return fragment.isHidden();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public TransactionBackend getChildTransactionBackend(Fragment fragment) {
+        return new FragmentManagerTransactionBackend(fragment.getChildFragmentManager());
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public Transaction beginTransaction() {
+        //transactions are committed before the next one begins, so the wrapper is reused
+        mTransaction.mFragmentTransaction = mFragmentManager.beginTransaction();
+        return mTransaction;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public void executePendingTransactions() {
+        mFragmentManager.executePendingTransactions();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public void popBackStack(int entryIndex, boolean inclusive) {
+        if ((entryIndex >= 0) && (entryIndex < mFragmentManager.getBackStackEntryCount())) {
+            int entryId = mFragmentManager.getBackStackEntryAt(entryIndex).getId();
+            mFragmentManager.popBackStack(entryId, inclusive ? FragmentManager.POP_BACK_STACK_INCLUSIVE : 0);
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public boolean popBackStackImmediate(String name, boolean inclusive) {
+        return mFragmentManager.popBackStackImmediate(name, inclusive ? FragmentManager.POP_BACK_STACK_INCLUSIVE : 0);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public boolean popBackStackImmediate(int entryIndex, boolean inclusive) {
+        if ((entryIndex < 0) || (entryIndex >= mFragmentManager.getBackStackEntryCount())) {
+            return false;
+        }
+
+        int entryId = mFragmentManager.getBackStackEntryAt(entryIndex).getId();
+        return mFragmentManager.popBackStackImmediate(entryId, inclusive ? FragmentManager.POP_BACK_STACK_INCLUSIVE : 0);
+    }
+
+    private static class FragmentManagerTransaction implements Transaction {
+        private FragmentTransaction mFragmentTransaction;
+
+        @Override
+        public Transaction setCustomAnimations(int enter, int exit, int popEnter, int popExit) {
+            mFragmentTransaction.setCustomAnimations(enter, exit, popEnter, popExit);
+            return this;
+        }
+
+        @Override
+        public Transaction add(int containerId, Fragment fragment, String tag) {
+            mFragmentTransaction.add(containerId, fragment, tag);
+            return this;
+        }
+
+        @Override
+        public Transaction remove(Fragment fragment) {
+            mFragmentTransaction.remove(fragment);
+            return this;
+        }
+
+        @Override
+        public Transaction hide(Fragment fragment) {
+            mFragmentTransaction.hide(fragment);
+            return this;
+        }
+
+        @Override
+        public Transaction show(Fragment fragment) {
+            mFragmentTransaction.show(fragment);
+            return this;
+        }
+
+        @Override
+        public Transaction detach(Fragment fragment) {
+            mFragmentTransaction.detach(fragment);
+            return this;
+        }
+
+        @Override
+        public Transaction attach(Fragment fragment) {
+            mFragmentTransaction.attach(fragment);
+            return this;
+        }
+
+        @Override
+        public Transaction addToBackStack(String name) {
+            mFragmentTransaction.addToBackStack(name);
+            return this;
+        }
+
+        @Override
+        public void commit() {
+            mFragmentTransaction.commit();
+            mFragmentTransaction = null;
+        }
+
+        @Override
+        public void commitAllowingStateLoss() {
+            mFragmentTransaction.commitAllowingStateLoss();
+            mFragmentTransaction = null;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentStateCleaner;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of fragment instances that can be reused by the FragmentSwapper.
+ *
+ * Fragments obtained from the pool are returned to it by the FragmentSwapper when they are finally
+ * removed from the FragmentManager, e.g. when popped. Fragments that were never added are returned
+ * with release(), e.g. when their swap is dropped as a duplicate or elided. FragmentManager does not
+ * reset the saved view state of a removed fragment, so the pool clears it before the fragment is reused.
+ * Fragment instance is reused only for the same fragment class and equal arguments. The least
+ * recently used fragments are evicted when the pool exceeds its maximum size.
+ *
+ * Pooled fragments keep no views, except prefetched ones. Reused fragment is notified with
+ * FragmentDescriptor.onFragmentRecycled() and must reset its own state there.
+ *
+ * Pool releases prefetched views and fragments when memory is low. Pool attached to the FragmentSwapper
+ * is trimmed by FragmentSwapper.onTrimMemory(), otherwise it should be registered with
+ * Context.registerComponentCallbacks().
+ *
+ * Pool must be used only on the main thread and must not be shared between Activities.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.InitializationParams.Builder#fragmentPool(FragmentPool)
+ *
+ * @param <F> Fragment class that is supported by FragmentSwapper.
+ */
+public class FragmentPool<F extends Fragment & FragmentDescriptor> implements ComponentCallbacks2 {
+
+    private static final int DEFAULT_MAX_PREFETCHED = 1;
+
+    private final int mMaxSize;
+    private final int mMaxPrefetched;
+    private final LinkedHashMap<Key, F> mFragments;
+    private final LinkedHashSet<F> mPrefetchedFragments;
+    private final WeakHashMap<F, Key> mObtainedFragments;
+    private final WeakHashMap<F, Key> mAddedFragments;
+
+    private int mReusedCount;
+    private int mCreatedCount;
+
+    /**
+     * Class constructor.
+     *
+     * Pool keeps at most one prefetched view.
+     *
+     * @param maxSize Maximum number of fragments kept in the pool.
+     */
+    public FragmentPool(int maxSize) {
+        this(maxSize, DEFAULT_MAX_PREFETCHED);
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param maxSize Maximum number of fragments kept in the pool.
+     * @param maxPrefetched Maximum number of pooled fragments with prefetched views.
+     */
+    public FragmentPool(int maxSize, int maxPrefetched) {
+        if ((maxSize < 1) || (maxPrefetched < 0)) {
+            throw new IllegalArgumentException("Invalid pool size");
+        }
+
+        mMaxSize = maxSize;
+        mMaxPrefetched = maxPrefetched;
+        mFragments = new LinkedHashMap<Key, F>(maxSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, F> eldest) {
+                boolean remove = size() > mMaxSize;
+                if (remove) {
+                    releasePrefetchedView(eldest.getValue());
+                }
+                return remove;
+            }
+        };
+        mPrefetchedFragments = new LinkedHashSet<F>();
+        mObtainedFragments = new WeakHashMap<F, Key>();
+        mAddedFragments = new WeakHashMap<F, Key>();
+    }
+
+    /**
+     * Gets fragment of provided class with provided arguments.
+     *
+     * Pooled instance is returned if available, new instance is created otherwise.
+     *
+     * @param fragmentClass Fragment class. Class must have public no-argument constructor.
+     * @param arguments Fragment arguments or null.
+     * @param <T> Fragment type.
+     * @return Fragment instance.
+     */
+    public <T extends F> T obtain(Class<T> fragmentClass, Bundle arguments) {
+        Key key = new Key(fragmentClass, arguments);
+
+        T fragment = fragmentClass.cast(mFragments.remove(key));
+        if ((fragment != null) && isReusable(fragment)) {
+            //prefetched view is used by the fragment
+            mPrefetchedFragments.remove(fragment);
+            fragment.onFragmentRecycled();
+            ++mReusedCount;
+        } else {
+            releasePrefetchedView(fragment);
+            fragment = instantiate(fragmentClass, arguments);
+            ++mCreatedCount;
+        }
+
+        mObtainedFragments.put(fragment, key);
+        return fragment;
+    }
+
+    /**
+     * Puts fragment of provided class with provided arguments to the pool and creates its view.
+     *
+     * Following obtain() request with the same class and arguments returns prefetched fragment.
+     * The least recently prefetched view is released when the limit of prefetched views is exceeded.
+     *
+     * @param fragmentClass Fragment class. Class must have public no-argument constructor.
+     * @param arguments Fragment arguments or null.
+     * @param inflater LayoutInflater of the Activity that the fragment will be attached to.
+     * @param container Container that the fragment view will be added to.
+     * @param <T> Fragment type.
+     * @return True if fragment view was created, false otherwise.
+     */
+    public <T extends F> boolean prefetch(Class<T> fragmentClass, Bundle arguments, LayoutInflater inflater, ViewGroup container) {
+        if (mMaxPrefetched == 0) {
+            return false;
+        }
+
+        Key key = new Key(fragmentClass, arguments);
+
+        F fragment = mFragments.get(key);
+        if ((fragment != null) && mPrefetchedFragments.contains(fragment)) {
+            return true;
+        }
+
+        if ((fragment == null) || !isReusable(fragment)) {
+            fragment = instantiate(fragmentClass, arguments);
+        } else {
+            fragment.onFragmentRecycled();
+        }
+
+        if (!fragment.prefetchView(inflater, container)) {
+            return false;
+        }
+
+        mFragments.put(key, fragment);
+        mPrefetchedFragments.add(fragment);
+        if (mPrefetchedFragments.size() > mMaxPrefetched) {
+            releasePrefetchedView(mPrefetchedFragments.iterator().next());
+        }
+        return true;
+    }
+
+    /**
+     * Returns fragment that was not used to the pool.
+     *
+     * Fragments that were not obtained from the pool or were already added to the FragmentManager
+     * are ignored.
+     *
+     * @param fragment Fragment that was never added to the FragmentManager.
+     */
+    public void release(F fragment) {
+        Key key = mObtainedFragments.remove(fragment);
+        if ((key != null) && !mFragments.containsKey(key)) {
+            mFragments.put(key, fragment);
+        }
+    }
+
+    /**
+     * Method called by the FragmentSwapper when obtained fragment is added to the FragmentManager.
+     *
+     * Added fragment is returned to the pool when it is finally removed.
+     *
+     * @param fragment Added fragment.
+     */
+    void onFragmentAdded(F fragment) {
+        Key key = mObtainedFragments.remove(fragment);
+        if (key != null) {
+            mAddedFragments.put(fragment, key);
+        }
+    }
+
+    /**
+     * Method called by the FragmentSwapper when added fragment is finally removed from the FragmentManager.
+     *
+     * Fragments that were not obtained from the pool are ignored.
+     *
+     * @param fragment Removed fragment.
+     */
+    void onFragmentRemoved(F fragment) {
+        Key key = mAddedFragments.remove(fragment);
+        if ((key != null) && !mFragments.containsKey(key)) {
+            //view state of the previous use would be restored in the next one
+            FragmentStateCleaner.clearSavedViewState(fragment);
+            mFragments.put(key, fragment);
+        }
+    }
+
+    /**
+     * Removes all fragments from the pool.
+     */
+    public void clear() {
+        releasePrefetchedViews();
+        mFragments.clear();
+    }
+
+    /**
+     * Releases views of all prefetched fragments. Fragments are kept in the pool.
+     */
+    public void releasePrefetchedViews() {
+        for (F fragment : mPrefetchedFragments) {
+            fragment.releasePrefetchedView();
+        }
+        mPrefetchedFragments.clear();
+    }
+
+    /**
+     * Gets number of fragments kept in the pool.
+     *
+     * @return Number of fragments.
+     */
+    public int size() {
+        return mFragments.size();
+    }
+
+    /**
+     * Gets number of obtain requests served with pooled fragment.
+     *
+     * @return Number of reused fragments.
+     */
+    public int getReusedCount() {
+        return mReusedCount;
+    }
+
+    /**
+     * Gets number of obtain requests that required new fragment instance.
+     *
+     * @return Number of created fragments.
+     */
+    public int getCreatedCount() {
+        return mCreatedCount;
+    }
+
+    /**
+     * @see android.content.ComponentCallbacks2
+     *
+     * Levels are staged the same way as in SingleContainerFragmentSwapper: prefetched views are released
+     * at TRIM_MEMORY_RUNNING_MODERATE and TRIM_MEMORY_UI_HIDDEN, all fragments are released from
+     * TRIM_MEMORY_RUNNING_LOW and TRIM_MEMORY_BACKGROUND on.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.SingleContainerFragmentSwapper#onTrimMemory(int)
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        switch (level) {
+            case TRIM_MEMORY_RUNNING_MODERATE:
+            case TRIM_MEMORY_UI_HIDDEN:
+                releasePrefetchedViews();
+                break;
+
+            case TRIM_MEMORY_RUNNING_LOW:
+            case TRIM_MEMORY_RUNNING_CRITICAL:
+            case TRIM_MEMORY_BACKGROUND:
+            case TRIM_MEMORY_MODERATE:
+            case TRIM_MEMORY_COMPLETE:
+                clear();
+                break;
+        }
+    }
+
+    /**
+     * @see android.content.ComponentCallbacks
+     */
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    /**
+     * @see android.content.ComponentCallbacks
+     */
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        //prefetched views may depend on the configuration
+        releasePrefetchedViews();
+    }
+
+    private void releasePrefetchedView(F fragment) {
+        if ((fragment != null) && mPrefetchedFragments.remove(fragment)) {
+            fragment.releasePrefetchedView();
+        }
+    }
+
+    private boolean isReusable(F fragment) {
+        //removed fragment is still being destroyed, fragment released by the application may be still in use
+        return !fragment.isAdded() && !fragment.isRemoving() && (fragment.getActivity() == null);
+    }
+
+    private <T extends F> T instantiate(Class<T> fragmentClass, Bundle arguments) {
+        T fragment;
+        try {
+            fragment = fragmentClass.newInstance();
+        } catch (InstantiationException exc) {
+            throw new IllegalArgumentException("Unable to instantiate fragment " + fragmentClass.getName(), exc);
+        } catch (IllegalAccessException exc) {
+            throw new IllegalArgumentException("Unable to instantiate fragment " + fragmentClass.getName(), exc);
+        }
+
+        if (arguments != null) {
+            fragment.setArguments(arguments);
+        }
+        return fragment;
+    }
+
+    /**
+     * Pool key made of fragment class and its arguments.
+     */
+    private static class Key {
+        private final Class<?> mFragmentClass;
+        private final Bundle mArguments;
+        private final int mHashCode;
+
+        Key(Class<?> fragmentClass, Bundle arguments) {
+            mFragmentClass = fragmentClass;
+            //arguments are copied, as fragment arguments are modified by FragmentSwapper
+            mArguments = ((arguments != null) && !arguments.isEmpty()) ? new Bundle(arguments) : null;
+            mHashCode = 31 * fragmentClass.hashCode() + ((mArguments != null) ? mArguments.keySet().hashCode() : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return (mFragmentClass == key.mFragmentClass) && bundlesEqual(mArguments, key.mArguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+
+        private static boolean bundlesEqual(Bundle first, Bundle second) {
+            if ((first == null) || (second == null)) {
+                return first == second;
+            }
+
+            Set<String> keys = first.keySet();
+            if (!keys.equals(second.keySet())) {
+                return false;
+            }
+
+            Iterator<String> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                String key = iterator.next();
+                if (!valuesEqual(first.get(key), second.get(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean valuesEqual(Object first, Object second) {
+            if ((first instanceof Bundle) && (second instanceof Bundle)) {
+                return bundlesEqual((Bundle) first, (Bundle) second);
+            }
+            //wraps values in arrays, so arrays of primitives are compared by content
+            return Arrays.deepEquals(new Object[] {first}, new Object[] {second});
+        }
+    }
+}
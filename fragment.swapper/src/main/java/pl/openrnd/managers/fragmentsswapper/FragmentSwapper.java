@@ -18,8 +18,11 @@
 
 package pl.openrnd.managers.fragmentsswapper;
 
+import android.os.Bundle;
 import android.support.v4.app.Fragment;
 
+import java.util.List;
+
 /**
  * Interface defining base FragmentSwapper API.
  *
@@ -37,6 +40,36 @@ public interface FragmentSwapper<F extends Fragment & FragmentDescriptor> {
      */
     boolean isAnimationEnabled();
 
+    /**
+     * Method called by the fragment when its enter animation ends.
+     *
+     * Fragment that enters without animation calls this method when its animation is created.
+     *
+     * @param fragment Fragment which enter animation ended.
+     */
+    void onEnterAnimationEnd(F fragment);
+
+    /**
+     * Method called by the fragment when it is finally removed from the FragmentManager, e.g. popped.
+     *
+     * @param fragment Removed fragment.
+     */
+    void onFragmentRemoved(F fragment);
+
+    /**
+     * Gets Logger used by FragmentSwapper and fragments attached to it.
+     *
+     * @return Logger object.
+     */
+    Logger getLogger();
+
+    /**
+     * Gets SavedStateProfiler measuring and limiting size of the back stack saved state.
+     *
+     * @return SavedStateProfiler object or null if saved state is not measured.
+     */
+    SavedStateProfiler getSavedStateProfiler();
+
     /**
      * Method that must be called by the holding Activity in its onPause() method.
      *
@@ -51,6 +84,15 @@ public interface FragmentSwapper<F extends Fragment & FragmentDescriptor> {
      */
     void onResume();
 
+    /**
+     * Method that should be called by the holding Activity in its onTrimMemory() method.
+     *
+     * @see android.content.ComponentCallbacks2
+     *
+     * @param level Memory trim level.
+     */
+    void onTrimMemory(int level);
+
     /**
      * Method starting fragment enter transaction.
      *
@@ -59,6 +101,19 @@ public interface FragmentSwapper<F extends Fragment & FragmentDescriptor> {
      */
     void swapFragment(SwapParams swapParams, F fragment);
 
+    /**
+     * Method starting enter transaction of multiple fragments.
+     *
+     * Fragments are added to the back stack in the provided order in one operation, e.g. when
+     * the stack of screens has to be rebuilt for a deep link. Only the last fragment is shown,
+     * views of the fragments below it are created when the user goes back to them.
+     * Request code, animations and addToBackStack parameter apply to the last fragment.
+     *
+     * @param swapParams SwapParams object with transaction parameters.
+     * @param fragments Fragments to be entered, the last one becomes current fragment.
+     */
+    void swapFragments(SwapParams swapParams, List<F> fragments);
+
     /**
      * Method starting fragment popping transaction.
      *
@@ -66,6 +121,47 @@ public interface FragmentSwapper<F extends Fragment & FragmentDescriptor> {
      */
     void popFragment(PopParams popParams);
 
+    /**
+     * Method starting popping transaction of multiple fragments.
+     *
+     * Fragments are popped in one transaction. Result of the current fragment is passed
+     * directly to the fragment that becomes current.
+     *
+     * @param count Number of fragments to be popped.
+     * @param popParams PopParams object with transaction parameters.
+     */
+    void popFragments(int count, PopParams popParams);
+
+    /**
+     * Method starting popping transaction up to the most recent fragment with provided name.
+     *
+     * Fragments are popped in one transaction. Result of the current fragment is passed
+     * directly to the fragment that becomes current.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor#getName()
+     *
+     * @param name Fragment name.
+     * @param inclusive True if the fragment with provided name has to be popped as well, false otherwise.
+     * @param popParams PopParams object with transaction parameters.
+     */
+    void popTo(String name, boolean inclusive, PopParams popParams);
+
+    /**
+     * Method requesting creation of the fragment that is likely to be swapped next.
+     *
+     * Fragment is created and its view is inflated when the main thread is idle. Created fragment
+     * is kept in the FragmentPool, so it is returned by the pool for the following swap request.
+     * Method must be called on the main thread.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentPool
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor#prefetchView
+     *
+     * @param fragmentClass Fragment class.
+     * @param arguments Fragment arguments or null.
+     * @param <T> Fragment type.
+     */
+    <T extends F> void prefetch(Class<T> fragmentClass, Bundle arguments);
+
     /**
      * Gets current fragment
      *
@@ -0,0 +1,139 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.view.Choreographer;
+import android.view.Display;
+
+/**
+ * Monitor counting frames drawn between arm() and disarm() calls.
+ *
+ * Requires Android API 16, instance must not be created on older platforms.
+ */
+class FrameMonitor implements Choreographer.FrameCallback {
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    /**
+     * Interface used for getting frame statistics when monitoring is finished.
+     */
+    interface Listener {
+
+        /**
+         * Method called when monitoring is finished.
+         *
+         * @param stats JankStats object with frame statistics.
+         */
+        void onMonitoringFinished(JankStats stats);
+    }
+
+    private final Choreographer mChoreographer;
+    private final long mMaxDuration;
+    private final Listener mListener;
+
+    private long mFrameInterval;
+    private JankStats mStats;
+    private long mFirstFrameTime;
+    private long mLastFrameTime;
+
+    /**
+     * Creates monitor bound to the Choreographer of the calling thread.
+     *
+     * @param maxDuration Time in nanoseconds after which monitoring is finished even if disarm() was not called.
+     * @param listener Listener object receiving frame statistics.
+     */
+    FrameMonitor(long maxDuration, Listener listener) {
+        mChoreographer = Choreographer.getInstance();
+        mMaxDuration = maxDuration;
+        mListener = listener;
+    }
+
+    /**
+     * Starts monitoring. Monitoring that is already in progress is finished first.
+     *
+     * Expected time between frames is derived from the refresh rate of the display, which is read
+     * on every start as it may change while the application is running.
+     *
+     * @param display Display that frames are drawn on or null if not known, 60Hz is assumed then.
+     */
+    void arm(Display display) {
+        if (mStats != null) {
+            finish(null);
+        }
+
+        float refreshRate = (display != null) ? display.getRefreshRate() : 0;
+        mFrameInterval = (long) (NANOS_PER_SECOND / ((refreshRate > 0) ? refreshRate : DEFAULT_REFRESH_RATE));
+
+        mStats = new JankStats();
+        mFirstFrameTime = 0;
+        mLastFrameTime = 0;
+        mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Finishes monitoring if it is in progress.
+     *
+     * @param name Name of the monitored fragment.
+     */
+    void disarm(String name) {
+        if (mStats != null) {
+            finish(name);
+        }
+    }
+
+    boolean isArmed() {
+        return mStats != null;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (mStats == null) {
+            return;
+        }
+
+        ++mStats.mFrameCount;
+        if (mLastFrameTime == 0) {
+            mFirstFrameTime = frameTimeNanos;
+        } else {
+            long frameTime = frameTimeNanos - mLastFrameTime;
+            mStats.mWorstFrameTime = Math.max(mStats.mWorstFrameTime, frameTime);
+            //frame time rounded to whole frame intervals, one of them is the frame itself
+            mStats.mDroppedFrameCount += Math.max((frameTime + mFrameInterval / 2) / mFrameInterval - 1, 0);
+        }
+        mLastFrameTime = frameTimeNanos;
+
+        if (frameTimeNanos - mFirstFrameTime >= mMaxDuration) {
+            finish(null);
+        } else {
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+
+    private void finish(String name) {
+        mChoreographer.removeFrameCallback(this);
+
+        JankStats stats = mStats;
+        mStats = null;
+
+        stats.mName = name;
+        stats.mDuration = mLastFrameTime - mFirstFrameTime;
+        mListener.onMonitoringFinished(stats);
+    }
+}
@@ -0,0 +1,107 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * OperationScheduler implementation that posts operations to the Looper's message queue.
+ *
+ * It is the default scheduler used by FragmentSwapper (with main Looper).
+ *
+ * Operations can be posted as asynchronous messages. Asynchronous messages are not blocked by
+ * synchronization barriers that are set while views hierarchy traversal is scheduled, so fragments
+ * transactions do not wait for pending layout passes.
+ */
+public class HandlerOperationScheduler implements OperationScheduler {
+    private static final String TAG = HandlerOperationScheduler.class.getSimpleName();
+
+    private final FormattingLogger mLog;
+    private Handler mHandler;
+
+    /**
+     * Class constructor.
+     *
+     * @param looper Looper that operations will be executed on.
+     */
+    public HandlerOperationScheduler(Looper looper) {
+        this(looper, false);
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param looper Looper that operations will be executed on.
+     * @param asynchronous True if operations have to be posted as asynchronous messages, false otherwise.
+     *                     Asynchronous messages are supported since Jelly Bean, on older platforms
+     *                     the parameter is ignored.
+     */
+    public HandlerOperationScheduler(Looper looper, boolean asynchronous) {
+        this(looper, asynchronous, new AndroidLogger());
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param looper Looper that operations will be executed on.
+     * @param asynchronous True if operations have to be posted as asynchronous messages, false otherwise.
+     *                     Asynchronous messages are supported since Jelly Bean, on older platforms
+     *                     the parameter is ignored.
+     * @param logger Logger used to report fallback to synchronous messages.
+     */
+    public HandlerOperationScheduler(Looper looper, boolean asynchronous, Logger logger) {
+        mLog = new FormattingLogger(logger, TAG);
+        mHandler = asynchronous ? createAsyncHandler(looper) : new Handler(looper);
+    }
+
+    private Handler createAsyncHandler(Looper looper) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            try {
+                //Handler.createAsync() is public since API 28, the constructor is available since API 16
+                if (Build.VERSION.SDK_INT >= 28) {
+                    return (Handler) Handler.class.getMethod("createAsync", Looper.class).invoke(null, looper);
+                } else {
+                    return Handler.class.getConstructor(Looper.class, Handler.Callback.class, boolean.class).newInstance(looper, null, true);
+                }
+            } catch (Exception exc) {
+                mLog.w("createAsyncHandler(): asynchronous messages not available, %s", exc);
+            }
+        }
+
+        return new Handler(looper);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.OperationScheduler
+     */
+    @Override
+    public void post(Runnable operation) {
+        mHandler.post(operation);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.OperationScheduler
+     */
+    @Override
+    public boolean isSchedulerThread() {
+        return Looper.myLooper() == mHandler.getLooper();
+    }
+}
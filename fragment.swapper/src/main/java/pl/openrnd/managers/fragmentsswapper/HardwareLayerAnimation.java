@@ -0,0 +1,102 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.AnimationSet;
+import android.view.animation.Transformation;
+
+/**
+ * Animation wrapper that renders the animated view into a hardware layer.
+ *
+ * Layer is set when the wrapper is created and released when the animation ends, so the view tree
+ * is not redrawn in every frame of the transition. End of the animation is detected in
+ * getTransformation(), because FragmentManager replaces the listener of exit animations.
+ */
+final class HardwareLayerAnimation extends AnimationSet implements Runnable {
+
+    private Animation mAnimation;
+    private View mView;
+    private boolean mLayerReleasePosted;
+
+    /**
+     * Wraps animation, so the view is rendered into a hardware layer while animating.
+     *
+     * View is not changed if its window is not hardware accelerated or it already has a layer.
+     *
+     * @param animation Animation to be wrapped.
+     * @param view Animated view.
+     * @param activity Activity the view belongs to.
+     * @return Wrapping animation or the original one if hardware layer is not used.
+     */
+    static Animation wrap(Animation animation, View view, Activity activity) {
+        if ((view == null) || (activity == null) || (view.getLayerType() != View.LAYER_TYPE_NONE)) {
+            return animation;
+        }
+
+        //entering view is not attached yet, so the window of the Activity is checked
+        if (!activity.getWindow().getDecorView().isHardwareAccelerated()) {
+            return animation;
+        }
+
+        return new HardwareLayerAnimation(animation, view);
+    }
+
+    private HardwareLayerAnimation(Animation animation, View view) {
+        super(false);
+        addAnimation(animation);
+
+        mAnimation = animation;
+        mView = view;
+        mView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+    }
+
+    @Override
+    public boolean getTransformation(long currentTime, Transformation outTransformation) {
+        boolean more = super.getTransformation(currentTime, outTransformation);
+        if (!more) {
+            postLayerRelease();
+        }
+        return more;
+    }
+
+    @Override
+    public void cancel() {
+        //wrapped animation listener is notified about the end as well
+        mAnimation.cancel();
+        super.cancel();
+
+        postLayerRelease();
+    }
+
+    private void postLayerRelease() {
+        if (!mLayerReleasePosted) {
+            //layer type can not be changed while the view is being drawn
+            mLayerReleasePosted = true;
+            mView.post(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        mView.setLayerType(View.LAYER_TYPE_NONE, null);
+    }
+}
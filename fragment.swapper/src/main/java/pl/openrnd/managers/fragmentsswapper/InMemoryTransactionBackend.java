@@ -0,0 +1,511 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.support.v4.app.Fragment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * TransactionBackend implementation that keeps fragments and back stack in memory.
+ *
+ * Fragments are only tracked, no lifecycle methods are called and no views are created.
+ * Back stack is popped by the same rules as by FragmentManager. The backend can be used to run
+ * FragmentSwapper logic outside of the device (e.g. in JVM tests and benchmarks) together with
+ * custom OperationScheduler. Transactions, their operations and fragment records are recycled, so
+ * the backend does not allocate in steady state and allocations measured around the FragmentSwapper
+ * are its own. FragmentSwapper and BaseFragment still use android.jar classes,
+ * e.g. Bundle, so the JVM needs android.jar with methods returning default values, like the one
+ * provided for unit tests with testOptions.unitTests.returnDefaultValues.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.InitializationParams.Builder
+ */
+public class InMemoryTransactionBackend implements TransactionBackend {
+
+    private ArrayList<OnBackStackChangedListener> mListeners;
+    private ArrayList<Record> mBackStack;
+    private ArrayList<Record> mPendingRecords;
+    private ArrayList<ActiveFragment> mActive;
+    private HashMap<Fragment, InMemoryTransactionBackend> mChildBackends;
+
+    private ArrayList<Record> mRecycledRecords;
+    private ArrayList<Op> mRecycledOps;
+    private ArrayList<ActiveFragment> mRecycledActive;
+
+    /**
+     * Class constructor.
+     */
+    public InMemoryTransactionBackend() {
+        mListeners = new ArrayList<OnBackStackChangedListener>();
+        mBackStack = new ArrayList<Record>();
+        mPendingRecords = new ArrayList<Record>();
+        mActive = new ArrayList<ActiveFragment>();
+        mChildBackends = new HashMap<Fragment, InMemoryTransactionBackend>();
+
+        mRecycledRecords = new ArrayList<Record>();
+        mRecycledOps = new ArrayList<Op>();
+        mRecycledActive = new ArrayList<ActiveFragment>();
+    }
+
+    /**
+     * Gets number of fragments that are currently added and not detached.
+     *
+     * @return Number of added fragments.
+     */
+    public int getAddedFragmentsCount() {
+        int result = 0;
+        for (int i = 0; i < mActive.size(); ++i) {
+            if (!mActive.get(i).mDetached) {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public void addOnBackStackChangedListener(OnBackStackChangedListener listener) {
+        mListeners.add(listener);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public int getBackStackEntryCount() {
+        return mBackStack.size();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public String getBackStackEntryName(int entryIndex) {
+        return mBackStack.get(entryIndex).mName;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public Fragment findFragmentById(int containerId) {
+        for (int i = mActive.size() - 1; i >= 0; --i) {
+            ActiveFragment activeFragment = mActive.get(i);
+            if (!activeFragment.mDetached && (activeFragment.mContainerId == containerId)) {
+                return activeFragment.mFragment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public Fragment findFragmentByTag(String tag) {
+        Fragment detachedFragment = null;
+
+        for (int i = mActive.size() - 1; i >= 0; --i) {
+            ActiveFragment activeFragment = mActive.get(i);
+            if ((tag != null) && tag.equals(activeFragment.mTag)) {
+                if (!activeFragment.mDetached) {
+                    return activeFragment.mFragment;
+                } else if (detachedFragment == null) {
+                    detachedFragment = activeFragment.mFragment;
+                }
+            }
+        }
+        return detachedFragment;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public boolean isDetached(Fragment fragment) {
+        ActiveFragment activeFragment = findActive(fragment);
+        return (activeFragment != null) && activeFragment.mDetached;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public boolean isHidden(Fragment fragment) {
+        ActiveFragment activeFragment = findActive(fragment);
+        return (activeFragment != null) && activeFragment.mHidden;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     *
+     * The same backend is returned until the fragment is removed for good.
+     */
+    @Override
+    public TransactionBackend getChildTransactionBackend(Fragment fragment) {
+        InMemoryTransactionBackend result = mChildBackends.get(fragment);
+        if (result == null) {
+            result = new InMemoryTransactionBackend();
+            mChildBackends.put(fragment, result);
+        }
+        return result;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public Transaction beginTransaction() {
+        return obtainRecord(false);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public void executePendingTransactions() {
+        while (!mPendingRecords.isEmpty()) {
+            Record record = mPendingRecords.remove(0);
+
+            if (record.mIsPop) {
+                popRecords(record.mPopFromIndex);
+                recycle(record);
+            } else {
+                record.run();
+
+                if (record.mAddToBackStack) {
+                    mBackStack.add(record);
+                    notifyBackStackChanged();
+                } else {
+                    recycle(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public void popBackStack(int entryIndex, boolean inclusive) {
+        Record record = obtainRecord(true);
+        record.mPopFromIndex = inclusive ? entryIndex : entryIndex + 1;
+        mPendingRecords.add(record);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public boolean popBackStackImmediate(String name, boolean inclusive) {
+        executePendingTransactions();
+
+        //entries are matched as by FragmentManager, without name the top entry is popped,
+        //or all entries if inclusive
+        if (name == null) {
+            return popRecords(inclusive ? 0 : mBackStack.size() - 1);
+        }
+
+        int index = mBackStack.size() - 1;
+        while ((index >= 0) && !name.equals(mBackStack.get(index).mName)) {
+            --index;
+        }
+        if (index < 0) {
+            return false;
+        }
+
+        if (inclusive) {
+            //consecutive entries with the same name are popped together
+            while ((index > 0) && name.equals(mBackStack.get(index - 1).mName)) {
+                --index;
+            }
+        } else {
+            ++index;
+        }
+        return popRecords(index);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend
+     */
+    @Override
+    public boolean popBackStackImmediate(int entryIndex, boolean inclusive) {
+        executePendingTransactions();
+
+        return popRecords(inclusive ? entryIndex : entryIndex + 1);
+    }
+
+    private boolean popRecords(int fromIndex) {
+        if ((fromIndex < 0) || (fromIndex >= mBackStack.size())) {
+            return false;
+        }
+
+        for (int i = mBackStack.size() - 1; i >= fromIndex; --i) {
+            Record record = mBackStack.remove(i);
+            record.reverse();
+            recycle(record);
+        }
+        notifyBackStackChanged();
+        return true;
+    }
+
+    private void notifyBackStackChanged() {
+        for (int i = 0; i < mListeners.size(); ++i) {
+            mListeners.get(i).onBackStackChanged();
+        }
+    }
+
+    private Record obtainRecord(boolean isPop) {
+        int size = mRecycledRecords.size();
+        Record result = (size > 0) ? mRecycledRecords.remove(size - 1) : new Record();
+        result.mIsPop = isPop;
+        return result;
+    }
+
+    private void recycle(Record record) {
+        for (int i = 0; i < record.mOps.size(); ++i) {
+            Op op = record.mOps.get(i);
+            op.mFragment = null;
+            op.mActiveFragment = null;
+            mRecycledOps.add(op);
+        }
+        record.mOps.clear();
+        record.mIsPop = false;
+        record.mPopFromIndex = 0;
+        record.mAddToBackStack = false;
+        record.mName = null;
+        mRecycledRecords.add(record);
+    }
+
+    private Op obtainOp(int command, Fragment fragment, ActiveFragment activeFragment) {
+        int size = mRecycledOps.size();
+        Op result = (size > 0) ? mRecycledOps.remove(size - 1) : new Op();
+        result.mCommand = command;
+        result.mFragment = fragment;
+        result.mActiveFragment = activeFragment;
+        return result;
+    }
+
+    private ActiveFragment obtainActive(Fragment fragment, int containerId, String tag) {
+        int size = mRecycledActive.size();
+        ActiveFragment result = (size > 0) ? mRecycledActive.remove(size - 1) : new ActiveFragment();
+        result.mFragment = fragment;
+        result.mContainerId = containerId;
+        result.mTag = tag;
+        result.mDetached = false;
+        result.mHidden = false;
+        return result;
+    }
+
+    private void recycle(ActiveFragment activeFragment) {
+        mChildBackends.remove(activeFragment.mFragment);
+        activeFragment.mFragment = null;
+        activeFragment.mTag = null;
+        mRecycledActive.add(activeFragment);
+    }
+
+    private ActiveFragment findActive(Fragment fragment) {
+        for (int i = mActive.size() - 1; i >= 0; --i) {
+            if (mActive.get(i).mFragment == fragment) {
+                return mActive.get(i);
+            }
+        }
+        return null;
+    }
+
+    private void setDetached(Fragment fragment, boolean detached) {
+        ActiveFragment activeFragment = findActive(fragment);
+        if (activeFragment != null) {
+            activeFragment.mDetached = detached;
+        }
+    }
+
+    private void setHidden(Fragment fragment, boolean hidden) {
+        ActiveFragment activeFragment = findActive(fragment);
+        if (activeFragment != null) {
+            activeFragment.mHidden = hidden;
+        }
+    }
+
+    private static class ActiveFragment {
+        private Fragment mFragment;
+        private int mContainerId;
+        private String mTag;
+        private boolean mDetached;
+        private boolean mHidden;
+    }
+
+    private static class Op {
+        private static final int ADD = 1;
+        private static final int REMOVE = 2;
+        private static final int HIDE = 3;
+        private static final int DETACH = 4;
+        private static final int ATTACH = 5;
+        private static final int SHOW = 6;
+
+        private int mCommand;
+        private Fragment mFragment;
+        private ActiveFragment mActiveFragment;
+    }
+
+    private class Record implements Transaction {
+        private ArrayList<Op> mOps;
+        private boolean mIsPop;
+        private int mPopFromIndex;
+        private boolean mAddToBackStack;
+        private String mName;
+
+        private Record() {
+            mOps = new ArrayList<Op>();
+        }
+
+        @Override
+        public Transaction setCustomAnimations(int enter, int exit, int popEnter, int popExit) {
+            return this;
+        }
+
+        @Override
+        public Transaction add(int containerId, Fragment fragment, String tag) {
+            mOps.add(obtainOp(Op.ADD, fragment, obtainActive(fragment, containerId, tag)));
+            return this;
+        }
+
+        @Override
+        public Transaction remove(Fragment fragment) {
+            mOps.add(obtainOp(Op.REMOVE, fragment, null));
+            return this;
+        }
+
+        @Override
+        public Transaction hide(Fragment fragment) {
+            mOps.add(obtainOp(Op.HIDE, fragment, null));
+            return this;
+        }
+
+        @Override
+        public Transaction show(Fragment fragment) {
+            mOps.add(obtainOp(Op.SHOW, fragment, null));
+            return this;
+        }
+
+        @Override
+        public Transaction detach(Fragment fragment) {
+            mOps.add(obtainOp(Op.DETACH, fragment, null));
+            return this;
+        }
+
+        @Override
+        public Transaction attach(Fragment fragment) {
+            mOps.add(obtainOp(Op.ATTACH, fragment, null));
+            return this;
+        }
+
+        @Override
+        public Transaction addToBackStack(String name) {
+            mAddToBackStack = true;
+            mName = name;
+            return this;
+        }
+
+        @Override
+        public void commit() {
+            mPendingRecords.add(this);
+        }
+
+        @Override
+        public void commitAllowingStateLoss() {
+            commit();
+        }
+
+        private void run() {
+            for (int i = 0; i < mOps.size(); ++i) {
+                Op op = mOps.get(i);
+                switch (op.mCommand) {
+                    case Op.ADD:
+                        mActive.add(op.mActiveFragment);
+                        break;
+
+                    case Op.REMOVE:
+                        op.mActiveFragment = findActive(op.mFragment);
+                        mActive.remove(op.mActiveFragment);
+                        if (!mAddToBackStack && (op.mActiveFragment != null)) {
+                            //removed for good, the record is not reversed
+                            recycle(op.mActiveFragment);
+                        }
+                        break;
+
+                    case Op.HIDE:
+                        setHidden(op.mFragment, true);
+                        break;
+
+                    case Op.SHOW:
+                        setHidden(op.mFragment, false);
+                        break;
+
+                    case Op.DETACH:
+                        setDetached(op.mFragment, true);
+                        break;
+
+                    case Op.ATTACH:
+                        setDetached(op.mFragment, false);
+                        break;
+                }
+            }
+        }
+
+        private void reverse() {
+            for (int i = mOps.size() - 1; i >= 0; --i) {
+                Op op = mOps.get(i);
+                switch (op.mCommand) {
+                    case Op.ADD:
+                        //fragment may have been removed for good and its record recycled since
+                        if ((op.mActiveFragment.mFragment == op.mFragment) && mActive.remove(op.mActiveFragment)) {
+                            recycle(op.mActiveFragment);
+                        }
+                        break;
+
+                    case Op.REMOVE:
+                        if (op.mActiveFragment != null) {
+                            mActive.add(op.mActiveFragment);
+                        }
+                        break;
+
+                    case Op.HIDE:
+                        setHidden(op.mFragment, false);
+                        break;
+
+                    case Op.SHOW:
+                        setHidden(op.mFragment, true);
+                        break;
+
+                    case Op.DETACH:
+                        setDetached(op.mFragment, false);
+                        break;
+
+                    case Op.ATTACH:
+                        setDetached(op.mFragment, true);
+                        break;
+                }
+            }
+        }
+    }
+}
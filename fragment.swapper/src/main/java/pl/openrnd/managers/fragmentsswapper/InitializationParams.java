@@ -18,20 +18,105 @@
 
 package pl.openrnd.managers.fragmentsswapper;
 
+import android.os.Looper;
 import android.support.v4.app.FragmentManager;
 
 /**
  * FragmentSwapper initialization parameters class.
  */
 public class InitializationParams {
+
+    /**
+     * Retained views limit value meaning that views of all hidden fragments are retained.
+     */
+    public static final int RETAINED_VIEWS_UNLIMITED = 0;
+
+    /**
+     * Retained views limit value meaning that the limit is derived from the application heap size.
+     */
+    public static final int RETAINED_VIEWS_AUTO = -1;
+
+    /**
+     * Retained stacks limit value meaning that views of all MultiContainerFragmentSwapper stacks are retained.
+     */
+    public static final int RETAINED_STACKS_UNLIMITED = 0;
+
+    /**
+     * Duplicate swap window value meaning that duplicate swaps are not suppressed.
+     */
+    public static final long DUPLICATE_SWAP_WINDOW_DISABLED = 0;
+
+    private static final long RETAINED_VIEW_HEAP_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_AUTO_RETAINED_VIEWS = 8;
+
     private FragmentManager mFragmentManager;
     private int mContentFrame;
     private ScreenManager mScreenManager;
+    private TransactionBackend mTransactionBackend;
+    private OperationScheduler mOperationScheduler;
+    private boolean mExecuteImmediately;
+    private boolean mAsynchronousMessages;
+    private Logger mLogger;
+    private FragmentPool mFragmentPool;
+    private int mRetainedViewsLimit;
+    private int mRetainedStacksLimit;
+    private SavedStateProfiler mSavedStateProfiler;
+    private TransitionInterruptPolicy mTransitionInterruptPolicy;
+    private long mDuplicateSwapWindow;
+    private CommitStrategy mCommitStrategy;
 
     public FragmentManager getFragmentManager() {
         return mFragmentManager;
     }
 
+    public TransactionBackend getTransactionBackend() {
+        return mTransactionBackend;
+    }
+
+    public OperationScheduler getOperationScheduler() {
+        return mOperationScheduler;
+    }
+
+    public boolean isExecuteImmediately() {
+        return mExecuteImmediately;
+    }
+
+    public boolean isAsynchronousMessages() {
+        return mAsynchronousMessages;
+    }
+
+    public Logger getLogger() {
+        return mLogger;
+    }
+
+    public FragmentPool getFragmentPool() {
+        return mFragmentPool;
+    }
+
+    public int getRetainedViewsLimit() {
+        return mRetainedViewsLimit;
+    }
+
+    public int getRetainedStacksLimit() {
+        return mRetainedStacksLimit;
+    }
+
+    public SavedStateProfiler getSavedStateProfiler() {
+        return mSavedStateProfiler;
+    }
+
+    public TransitionInterruptPolicy getTransitionInterruptPolicy() {
+        return mTransitionInterruptPolicy;
+    }
+
+    public long getDuplicateSwapWindow() {
+        return mDuplicateSwapWindow;
+    }
+
+    public CommitStrategy getCommitStrategy() {
+        return mCommitStrategy;
+    }
+
     public int getContentFrame() {
         return mContentFrame;
     }
@@ -44,6 +129,36 @@ public class InitializationParams {
         mFragmentManager = builder.mFragmentManager;
         mContentFrame = builder.mContentFrame;
         mScreenManager = builder.mScreenManager;
+
+        mTransactionBackend = builder.mTransactionBackend;
+        if (mTransactionBackend == null) {
+            mTransactionBackend = new FragmentManagerTransactionBackend(mFragmentManager);
+        }
+
+        mExecuteImmediately = builder.mExecuteImmediately;
+        mFragmentPool = builder.mFragmentPool;
+        mSavedStateProfiler = builder.mSavedStateProfiler;
+        mTransitionInterruptPolicy = builder.mTransitionInterruptPolicy;
+        mDuplicateSwapWindow = builder.mDuplicateSwapWindow;
+        mCommitStrategy = builder.mCommitStrategy;
+
+        mRetainedStacksLimit = builder.mRetainedStacksLimit;
+        mRetainedViewsLimit = builder.mRetainedViewsLimit;
+        if (mRetainedViewsLimit == RETAINED_VIEWS_AUTO) {
+            long heapSize = Runtime.getRuntime().maxMemory();
+            mRetainedViewsLimit = (int) Math.max(1, Math.min(heapSize / RETAINED_VIEW_HEAP_SIZE, MAX_AUTO_RETAINED_VIEWS));
+        }
+        mAsynchronousMessages = builder.mAsynchronousMessages;
+
+        mLogger = builder.mLogger;
+        if (mLogger == null) {
+            mLogger = new AndroidLogger();
+        }
+
+        mOperationScheduler = builder.mOperationScheduler;
+        if (mOperationScheduler == null) {
+            mOperationScheduler = new HandlerOperationScheduler(Looper.getMainLooper(), mAsynchronousMessages, mLogger);
+        }
     }
 
     /**
@@ -53,11 +168,23 @@ public class InitializationParams {
         private FragmentManager mFragmentManager;
         private Integer mContentFrame;
         private ScreenManager mScreenManager;
+        private TransactionBackend mTransactionBackend;
+        private OperationScheduler mOperationScheduler;
+        private boolean mExecuteImmediately;
+        private boolean mAsynchronousMessages;
+        private Logger mLogger;
+        private FragmentPool mFragmentPool;
+        private int mRetainedViewsLimit = RETAINED_VIEWS_UNLIMITED;
+        private int mRetainedStacksLimit = RETAINED_STACKS_UNLIMITED;
+        private SavedStateProfiler mSavedStateProfiler;
+        private TransitionInterruptPolicy mTransitionInterruptPolicy = TransitionInterruptPolicy.NONE;
+        private long mDuplicateSwapWindow = DUPLICATE_SWAP_WINDOW_DISABLED;
+        private CommitStrategy mCommitStrategy = CommitStrategy.IMMEDIATE;
 
         /**
          * Sets FragmentManager associated with the FragmentSwapper context Activity.
          *
-         * Parameter required.
+         * Parameter required if TransactionBackend is not provided.
          *
          * @param fragmentManager FragmentManager
          * @return Builder object
@@ -93,6 +220,211 @@ public class InitializationParams {
             return this;
         }
 
+        /**
+         * Sets TransactionBackend that will be used for fragments transactions.
+         *
+         * Parameter optional. FragmentManagerTransactionBackend wrapping provided FragmentManager
+         * is used by default.
+         *
+         * @param transactionBackend TransactionBackend object
+         * @return Builder object
+         */
+        public Builder transactionBackend(TransactionBackend transactionBackend) {
+            mTransactionBackend = transactionBackend;
+            return this;
+        }
+
+        /**
+         * Sets OperationScheduler that will execute FragmentSwapper operations and notifications.
+         *
+         * Parameter optional. HandlerOperationScheduler with main Looper is used by default.
+         *
+         * @param operationScheduler OperationScheduler object
+         * @return Builder object
+         */
+        public Builder operationScheduler(OperationScheduler operationScheduler) {
+            mOperationScheduler = operationScheduler;
+            return this;
+        }
+
+        /**
+         * Sets operations execution mode.
+         *
+         * By default every operation is posted to the OperationScheduler and executed in one of the next
+         * loop iterations. In immediate mode operation is executed directly when it is requested on
+         * the scheduler thread, holding Activity is resumed and no other operation is pending or in progress.
+         *
+         * Parameter optional. False by default.
+         *
+         * @param executeImmediately True if operations have to be executed immediately when possible, false otherwise.
+         * @return Builder object
+         */
+        public Builder executeImmediately(boolean executeImmediately) {
+            mExecuteImmediately = executeImmediately;
+            return this;
+        }
+
+        /**
+         * Sets information if operations and notifications have to be posted to the main Looper
+         * as asynchronous messages, so they are not delayed by pending layout passes.
+         *
+         * Parameter optional. False by default. Ignored if custom OperationScheduler is provided.
+         *
+         * @see pl.openrnd.managers.fragmentsswapper.HandlerOperationScheduler
+         *
+         * @param asynchronousMessages True if asynchronous messages have to be used, false otherwise.
+         * @return Builder object
+         */
+        public Builder asynchronousMessages(boolean asynchronousMessages) {
+            mAsynchronousMessages = asynchronousMessages;
+            return this;
+        }
+
+        /**
+         * Sets Logger used by FragmentSwapper and fragments attached to it.
+         *
+         * Parameter optional. AndroidLogger with Log.INFO minimum priority is used by default,
+         * so verbose messages are neither formatted nor logged.
+         *
+         * @param logger Logger object
+         * @return Builder object
+         */
+        public Builder logger(Logger logger) {
+            mLogger = logger;
+            return this;
+        }
+
+        /**
+         * Sets FragmentPool that fragments obtained from it are returned to when removed.
+         *
+         * Parameter optional. Fragments are not pooled by default.
+         *
+         * @param fragmentPool FragmentPool object
+         * @return Builder object
+         */
+        public Builder fragmentPool(FragmentPool fragmentPool) {
+            mFragmentPool = fragmentPool;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of hidden back stack fragments that keep their views.
+         *
+         * Views of older hidden fragments are destroyed by detaching the fragments. View of such fragment
+         * is created again when the user navigates back to it, without pop enter animation.
+         *
+         * Parameter optional. RETAINED_VIEWS_UNLIMITED by default. RETAINED_VIEWS_AUTO derives the limit
+         * from the application heap size, from 1 to 8 views.
+         *
+         * @param retainedViewsLimit Positive number of views, RETAINED_VIEWS_UNLIMITED or RETAINED_VIEWS_AUTO.
+         * @return Builder object
+         */
+        public Builder retainedViewsLimit(int retainedViewsLimit) {
+            if (retainedViewsLimit < RETAINED_VIEWS_AUTO) {
+                throw new IllegalArgumentException("Invalid retained views limit");
+            }
+
+            mRetainedViewsLimit = retainedViewsLimit;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of MultiContainerFragmentSwapper stacks that keep their views.
+         *
+         * Views of the least recently used stacks are destroyed by detaching the stacks. Fragments of
+         * detached stack are kept and their views are created again when the stack is shown.
+         * Parameter is used only by MultiContainerFragmentSwapper.
+         *
+         * Parameter optional. RETAINED_STACKS_UNLIMITED by default.
+         *
+         * @see pl.openrnd.managers.fragmentsswapper.MultiContainerFragmentSwapper
+         *
+         * @param retainedStacksLimit Positive number of stacks or RETAINED_STACKS_UNLIMITED.
+         * @return Builder object
+         */
+        public Builder retainedStacksLimit(int retainedStacksLimit) {
+            if (retainedStacksLimit < RETAINED_STACKS_UNLIMITED) {
+                throw new IllegalArgumentException("Invalid retained stacks limit");
+            }
+
+            mRetainedStacksLimit = retainedStacksLimit;
+            return this;
+        }
+
+        /**
+         * Sets SavedStateProfiler measuring and limiting size of the back stack saved state.
+         *
+         * Parameter optional. Saved state is not measured by default.
+         *
+         * @param savedStateProfiler SavedStateProfiler object
+         * @return Builder object
+         */
+        public Builder savedStateProfiler(SavedStateProfiler savedStateProfiler) {
+            mSavedStateProfiler = savedStateProfiler;
+            return this;
+        }
+
+        /**
+         * Sets policy of handling a transition that is still animating when the next operation is executed.
+         *
+         * Parameter optional. TransitionInterruptPolicy.NONE by default, so transitions are not interrupted
+         * as in previous versions. TransitionInterruptPolicy.FAST_FORWARD makes at most one transition
+         * animate at a time.
+         *
+         * @param transitionInterruptPolicy TransitionInterruptPolicy value
+         * @return Builder object
+         */
+        public Builder transitionInterruptPolicy(TransitionInterruptPolicy transitionInterruptPolicy) {
+            if (transitionInterruptPolicy == null) {
+                throw new IllegalArgumentException("Argument is mandatory");
+            }
+
+            mTransitionInterruptPolicy = transitionInterruptPolicy;
+            return this;
+        }
+
+        /**
+         * Sets time window in which duplicate swaps are suppressed.
+         *
+         * Swap is a duplicate if it has the same fragment name and request code as the previously requested
+         * operation. Duplicate swap is dropped if it is requested within the window or while the previous one
+         * is pending or its transition is still animating, e.g. after a double tap on a button.
+         *
+         * Parameter optional. DUPLICATE_SWAP_WINDOW_DISABLED by default.
+         *
+         * @param duplicateSwapWindow Window in milliseconds or DUPLICATE_SWAP_WINDOW_DISABLED.
+         * @return Builder object
+         */
+        public Builder duplicateSwapWindow(long duplicateSwapWindow) {
+            if (duplicateSwapWindow < DUPLICATE_SWAP_WINDOW_DISABLED) {
+                throw new IllegalArgumentException("Invalid duplicate swap window");
+            }
+
+            mDuplicateSwapWindow = duplicateSwapWindow;
+            return this;
+        }
+
+        /**
+         * Sets default strategy of committing swap transactions.
+         *
+         * Strategy can be changed for a single swap with SwapParams.
+         *
+         * Parameter optional. CommitStrategy.IMMEDIATE by default.
+         *
+         * @see pl.openrnd.managers.fragmentsswapper.SwapParams.Builder#commitStrategy
+         *
+         * @param commitStrategy CommitStrategy value
+         * @return Builder object
+         */
+        public Builder commitStrategy(CommitStrategy commitStrategy) {
+            if (commitStrategy == null) {
+                throw new IllegalArgumentException("Argument is mandatory");
+            }
+
+            mCommitStrategy = commitStrategy;
+            return this;
+        }
+
         /**
          * Builds InitializationParams object with current arguments state.
          *
@@ -101,10 +433,10 @@ public class InitializationParams {
          * @return InitializationParams object.
          */
         public InitializationParams build() {
-            if ((mFragmentManager == null)
+            if (((mFragmentManager == null) && (mTransactionBackend == null))
                 || (mContentFrame == null)
                 || (mScreenManager == null)) {
-                throw new IllegalStateException("All parameters are mandatory");
+                throw new IllegalStateException("Required parameters are missing");
             }
 
             return new InitializationParams(this);
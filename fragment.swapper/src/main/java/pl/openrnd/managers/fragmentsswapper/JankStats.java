@@ -0,0 +1,92 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * Frame statistics of a single FragmentSwapper transition animation.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.OnJankStatsListener
+ */
+public class JankStats {
+
+    String mName;
+    int mFrameCount;
+    int mDroppedFrameCount;
+    long mWorstFrameTime;
+    long mDuration;
+
+    JankStats() {
+    }
+
+    /**
+     * Gets name of the fragment which enter animation was monitored.
+     *
+     * @return Fragment name or null if there is no current fragment.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Gets number of frames drawn during the transition.
+     *
+     * @return Number of frames.
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Gets number of frames that were dropped during the transition.
+     *
+     * @return Number of dropped frames.
+     */
+    public int getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+
+    /**
+     * Gets the longest time between two consecutive frames of the transition.
+     *
+     * @return Frame time in nanoseconds.
+     */
+    public long getWorstFrameTime() {
+        return mWorstFrameTime;
+    }
+
+    /**
+     * Gets time from the first to the last frame of the transition.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getDuration() {
+        return mDuration;
+    }
+
+    @Override
+    public String toString() {
+        return "JankStats{" +
+                "name=" + mName +
+                ", frames=" + mFrameCount +
+                ", dropped=" + mDroppedFrameCount +
+                ", worstFrame=" + mWorstFrameTime +
+                ", duration=" + mDuration +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * Interface defining logger used by FragmentSwapper.
+ *
+ * Priorities are the ones defined by android.util.Log (e.g. Log.VERBOSE, Log.ERROR).
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.AndroidLogger
+ * @see android.util.Log
+ */
+public interface Logger {
+
+    /**
+     * Gets information if messages with provided priority are logged.
+     *
+     * Messages are formatted only if this method returns true.
+     *
+     * @param priority Message priority.
+     * @return True if messages are logged, false otherwise.
+     */
+    boolean isLoggable(int priority);
+
+    /**
+     * Logs the message.
+     *
+     * @param priority Message priority.
+     * @param tag Message tag.
+     * @param message Formatted message.
+     * @param throwable Throwable object to be logged or null.
+     */
+    void log(int priority, String tag, String message, Throwable throwable);
+}
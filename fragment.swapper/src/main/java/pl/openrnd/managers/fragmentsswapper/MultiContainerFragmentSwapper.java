@@ -0,0 +1,608 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.content.ComponentCallbacks2;
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import pl.openrnd.managers.R;
+
+/**
+ * Implementation of FragmentSwapper managing multiple independent stacks of fragments, e.g. one per tab
+ * of bottom navigation.
+ *
+ * Every stack is hosted by StackHostFragment added to the content frame and is managed by
+ * SingleContainerFragmentSwapper working on the child TransactionBackend of the host (child FragmentManager
+ * by default). All FragmentSwapper
+ * operations are performed on the current stack. Switching stacks is a single transaction that hides
+ * the current host and shows the requested one, so fragments of the stacks are not re-created.
+ * Least recently used stacks are detached when the retained stacks limit is exceeded.
+ *
+ * The first created stack is the root stack. When the last fragment of other stack is popped,
+ * the root stack becomes current instead of requesting close.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.InitializationParams.Builder#retainedStacksLimit(int)
+ *
+ * @param <F> Fragment class that is supported by FragmentSwapper.
+ */
+public class MultiContainerFragmentSwapper<F extends Fragment & FragmentDescriptor> implements FragmentSwapper<F> {
+
+    private static final String TAG = MultiContainerFragmentSwapper.class.getSimpleName();
+    static final String STACK_TAG_PREFIX = TAG + ":";
+
+    private static final String DATA_STACK_NAMES = String.format("%s_%s", TAG, "DATA_STACK_NAMES");
+    private static final String DATA_CURRENT_STACK = String.format("%s_%s", TAG, "DATA_CURRENT_STACK");
+
+    private InitializationParams mInitializationParams;
+    private FormattingLogger mLog;
+
+    /**
+     * Stacks in the order of creation, the first one is the root stack.
+     */
+    private LinkedHashMap<String, Stack> mStacks;
+
+    /**
+     * Stacks names in the order of use, the most recently used one is the last.
+     */
+    private LinkedList<String> mStacksUsage;
+
+    private Stack mCurrentStack;
+
+    private boolean mIsSavedStateActive;
+
+    private OnFragmentSwapperListener mOnFragmentSwapperListener;
+
+    /**
+     * Current fragment of the switched stack, which resume notification is posted and not delivered yet.
+     */
+    private F mPendingResumeFragment;
+
+    /**
+     * Default constructor.
+     */
+    public MultiContainerFragmentSwapper() {
+    }
+
+    /**
+     * FragmentSwapper initialization routine.
+     *
+     * Content frame is the container for stacks hosts. Stacks use child backends of the TransactionBackend.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.TransactionBackend#getChildTransactionBackend(Fragment)
+     *
+     * @param initializationParams InitializationParams object with initialization parameters.
+     */
+    public void initialize(InitializationParams initializationParams) {
+        if (initializationParams == null) {
+            throw new IllegalArgumentException("Argument is mandatory");
+        }
+
+        mInitializationParams = initializationParams;
+        mLog = new FormattingLogger(initializationParams.getLogger(), TAG);
+        mStacks = new LinkedHashMap<String, Stack>();
+        mStacksUsage = new LinkedList<String>();
+    }
+
+    /**
+     * Method to be called with Bundle object containing state of holding Activity.
+     *
+     * Method starts main screen using attached ScreenManager if activity is created for the first time,
+     * otherwise stacks are restored.
+     *
+     * @param savedInstanceState Bundle object with saved state.
+     */
+    public void onRestoreInstanceState(Bundle savedInstanceState) {
+        mLog.v("onRestoreInstanceState(): savedInstanceState[%b]", savedInstanceState != null);
+
+        ArrayList<String> stackNames = (savedInstanceState != null) ? savedInstanceState.getStringArrayList(DATA_STACK_NAMES) : null;
+        if (stackNames == null) {
+            mInitializationParams.getScreenManager().onMainScreenRequested();
+            return;
+        }
+
+        TransactionBackend transactionBackend = mInitializationParams.getTransactionBackend();
+        for (String stackName : stackNames) {
+            StackHostFragment host = (StackHostFragment) transactionBackend.findFragmentByTag(getStackTag(stackName));
+            if (host != null) {
+                Stack stack = createStack(stackName, host);
+                stack.mFragmentSwapper.onRestoreInstanceState(savedInstanceState);
+                mStacksUsage.addLast(stackName);
+            }
+        }
+
+        String currentStackName = savedInstanceState.getString(DATA_CURRENT_STACK);
+        mCurrentStack = mStacks.get(currentStackName);
+        if (mCurrentStack != null) {
+            markStackUsed(currentStackName);
+        }
+    }
+
+    /**
+     * Method must be called by holding Activity in its onSaveInstanceState() method.
+     *
+     * @param outState Bundle to store saved state.
+     */
+    public void onSaveInstanceState(Bundle outState) {
+        outState.putStringArrayList(DATA_STACK_NAMES, new ArrayList<String>(mStacks.keySet()));
+        if (mCurrentStack != null) {
+            outState.putString(DATA_CURRENT_STACK, mCurrentStack.mName);
+        }
+    }
+
+    /**
+     * Makes stack with provided name current. Stack is created if it does not exist.
+     *
+     * Operations requested after this call are performed on the requested stack. Stack can not be
+     * switched after holding Activity state was saved. Current fragment of the requested stack is resumed
+     * and reported to OnFragmentSwapperListener with OperationScheduler, as fragments entered by swaps and pops.
+     *
+     * @param stackName Stack name.
+     * @return True if the stack was created and its first fragment has to be swapped, false otherwise.
+     */
+    public boolean switchToStack(String stackName) {
+        if (mIsSavedStateActive) {
+            throw new IllegalStateException("Stack can not be switched after Activity state was saved");
+        }
+
+        Stack stack = mStacks.get(stackName);
+        if ((stack != null) && (stack == mCurrentStack)) {
+            return false;
+        }
+
+        mLog.v("switchToStack(): stack[%s], exists[%b]", stackName, stack != null);
+
+        TransactionBackend transactionBackend = mInitializationParams.getTransactionBackend();
+        TransactionBackend.Transaction fragmentTransaction = transactionBackend.beginTransaction();
+
+        if (mCurrentStack != null) {
+            F currentFragment = mCurrentStack.mFragmentSwapper.getCurrentFragment();
+            if ((mPendingResumeFragment != null) && (mPendingResumeFragment == currentFragment)) {
+                //fragment was not resumed yet, so its resume is cancelled instead of pausing it
+                mPendingResumeFragment = null;
+            } else {
+                notifyPause(currentFragment);
+            }
+            fragmentTransaction.hide(mCurrentStack.mHost);
+        }
+
+        StackHostFragment newHost = null;
+        if (stack == null) {
+            newHost = new StackHostFragment();
+            fragmentTransaction.add(mInitializationParams.getContentFrame(), newHost, getStackTag(stackName));
+        } else if (transactionBackend.isDetached(stack.mHost)) {
+            fragmentTransaction.attach(stack.mHost);
+            fragmentTransaction.show(stack.mHost);
+        } else {
+            fragmentTransaction.show(stack.mHost);
+        }
+
+        markStackUsed(stackName);
+        detachLeastRecentlyUsedStacks(fragmentTransaction);
+
+        fragmentTransaction.commit();
+        transactionBackend.executePendingTransactions();
+
+        if (stack == null) {
+            //child FragmentManager is available when the host is attached
+            stack = createStack(stackName, newHost);
+        }
+        mCurrentStack = stack;
+
+        F fragment = stack.mFragmentSwapper.getCurrentFragment();
+        if (fragment != null) {
+            mPendingResumeFragment = fragment;
+            mInitializationParams.getOperationScheduler().post(mNotifyStackSwitchedRunnable);
+        }
+
+        return newHost != null;
+    }
+
+    /**
+     * Gets name of the current stack.
+     *
+     * @return Stack name or null if there is no stack.
+     */
+    public String getCurrentStackName() {
+        return (mCurrentStack != null) ? mCurrentStack.mName : null;
+    }
+
+    /**
+     * Gets FragmentSwapper of the stack with provided name, e.g. for setting its metrics listeners.
+     *
+     * @param stackName Stack name.
+     * @return SingleContainerFragmentSwapper object or null if the stack does not exist.
+     */
+    public SingleContainerFragmentSwapper<F> getStackFragmentSwapper(String stackName) {
+        Stack stack = mStacks.get(stackName);
+        return (stack != null) ? stack.mFragmentSwapper : null;
+    }
+
+    /**
+     * Method must be called by holding Activity in its onBackPressed() method.
+     *
+     * Method pops current fragment of the current stack.
+     *
+     * @param popParams PopParams object with pop transaction parameters.
+     */
+    public void onBackPressed(PopParams popParams) {
+        if (mCurrentStack != null) {
+            mCurrentStack.mFragmentSwapper.onBackPressed(popParams);
+        } else {
+            notifyCloseRequest();
+        }
+    }
+
+    /**
+     * Sets OnFragmentSwapperListener object that will receive notifications related to FragmentSwapper state and requests.
+     *
+     * Only notifications of the current stack are passed.
+     *
+     * @param listener OnFragmentSwapperListener object
+     */
+    public void setOnFragmentSwapperListener(OnFragmentSwapperListener listener) {
+        mOnFragmentSwapperListener = listener;
+    }
+
+    private Stack createStack(String stackName, StackHostFragment host) {
+        InitializationParams initializationParams = mInitializationParams;
+        InitializationParams.Builder builder = new InitializationParams.Builder()
+                .transactionBackend(initializationParams.getTransactionBackend().getChildTransactionBackend(host))
+                .contentFrame(R.id.fragment_swapper_stack_container)
+                .screenManager(initializationParams.getScreenManager())
+                .operationScheduler(initializationParams.getOperationScheduler())
+                .executeImmediately(initializationParams.isExecuteImmediately())
+                .logger(initializationParams.getLogger())
+                .fragmentPool(initializationParams.getFragmentPool())
+                .savedStateProfiler(initializationParams.getSavedStateProfiler())
+                .transitionInterruptPolicy(initializationParams.getTransitionInterruptPolicy())
+                .duplicateSwapWindow(initializationParams.getDuplicateSwapWindow())
+                .commitStrategy(initializationParams.getCommitStrategy())
+                .retainedViewsLimit(initializationParams.getRetainedViewsLimit());
+
+        Stack stack = new Stack(stackName, host, new SingleContainerFragmentSwapper<F>());
+        stack.mFragmentSwapper.setOnFragmentSwapperListener(new StackListener(stack));
+        stack.mFragmentSwapper.initialize(builder.build());
+        if (mIsSavedStateActive) {
+            stack.mFragmentSwapper.onPause();
+        }
+
+        mStacks.put(stackName, stack);
+        return stack;
+    }
+
+    private void markStackUsed(String stackName) {
+        mStacksUsage.remove(stackName);
+        mStacksUsage.addLast(stackName);
+    }
+
+    private void detachLeastRecentlyUsedStacks(TransactionBackend.Transaction fragmentTransaction) {
+        int retainedStacksLimit = mInitializationParams.getRetainedStacksLimit();
+        if (retainedStacksLimit == InitializationParams.RETAINED_STACKS_UNLIMITED) {
+            return;
+        }
+
+        TransactionBackend transactionBackend = mInitializationParams.getTransactionBackend();
+
+        //the most recently used stack is the one being shown
+        int retainedStacks = 1;
+        Iterator<String> iterator = mStacksUsage.descendingIterator();
+        iterator.next();
+        while (iterator.hasNext()) {
+            Stack stack = mStacks.get(iterator.next());
+            if ((stack == null) || transactionBackend.isDetached(stack.mHost)) {
+                continue;
+            }
+
+            if (retainedStacks < retainedStacksLimit) {
+                ++retainedStacks;
+            } else {
+                mLog.v("detachLeastRecentlyUsedStacks(): stack[%s]", stack.mName);
+
+                fragmentTransaction.detach(stack.mHost);
+            }
+        }
+    }
+
+    private void detachHiddenStacks() {
+        TransactionBackend transactionBackend = mInitializationParams.getTransactionBackend();
+        TransactionBackend.Transaction fragmentTransaction = null;
+
+        for (Stack stack : mStacks.values()) {
+            if ((stack != mCurrentStack) && !transactionBackend.isDetached(stack.mHost)) {
+                if (fragmentTransaction == null) {
+                    fragmentTransaction = transactionBackend.beginTransaction();
+                }
+                fragmentTransaction.detach(stack.mHost);
+            }
+        }
+
+        if (fragmentTransaction != null) {
+            if (mIsSavedStateActive) {
+                //state loss only means that detached stacks are restored with views
+                fragmentTransaction.commitAllowingStateLoss();
+            } else {
+                fragmentTransaction.commit();
+            }
+        }
+    }
+
+    private String getStackTag(String stackName) {
+        return STACK_TAG_PREFIX + stackName;
+    }
+
+    private void notifyPause(F fragment) {
+        if (fragment != null) {
+            fragment.onFragmentPause();
+        }
+    }
+
+    private void notifyResume(F fragment) {
+        if (fragment != null) {
+            fragment.onFragmentResume();
+        }
+    }
+
+    private Runnable mNotifyStackSwitchedRunnable = new Runnable() {
+        @Override
+        public void run() {
+            F fragment = mPendingResumeFragment;
+            mPendingResumeFragment = null;
+
+            //resume is skipped if it was cancelled or the stack was changed in the meantime
+            if ((fragment != null) && (fragment == getCurrentFragment())) {
+                notifyResume(fragment);
+                notifyNewFragment(fragment);
+            }
+        }
+    };
+
+    private void notifyNewFragment(final F fragment) {
+        mLog.v("notifyNewFragment(): fragment[%s]", fragment != null ? fragment.getName() : null);
+
+        if (mOnFragmentSwapperListener != null) {
+            mOnFragmentSwapperListener.onFragmentEntered(this, fragment);
+        }
+    }
+
+    private void notifyCloseRequest() {
+        mLog.v("notifyCloseRequest()");
+
+        if (mOnFragmentSwapperListener != null) {
+            mOnFragmentSwapperListener.onCloseRequested(this);
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public boolean isAnimationEnabled() {
+        return (mCurrentStack == null) || mCurrentStack.mFragmentSwapper.isAnimationEnabled();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void onEnterAnimationEnd(F fragment) {
+        if (mCurrentStack != null) {
+            mCurrentStack.mFragmentSwapper.onEnterAnimationEnd(fragment);
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void onFragmentRemoved(F fragment) {
+        FragmentPool<F> fragmentPool = mInitializationParams.getFragmentPool();
+        if (fragmentPool != null) {
+            fragmentPool.onFragmentRemoved(fragment);
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public Logger getLogger() {
+        return mInitializationParams.getLogger();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public SavedStateProfiler getSavedStateProfiler() {
+        return mInitializationParams.getSavedStateProfiler();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void onPause() {
+        mLog.v("onPause()");
+
+        mIsSavedStateActive = true;
+
+        for (Stack stack : mStacks.values()) {
+            stack.mFragmentSwapper.onPause();
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void onResume() {
+        mLog.v("onResume()");
+
+        mIsSavedStateActive = false;
+
+        for (Stack stack : mStacks.values()) {
+            stack.mFragmentSwapper.onResume();
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     *
+     * Level is passed to all stacks. Levels are staged the same way as in SingleContainerFragmentSwapper,
+     * all stacks except the current one are detached at the stage that destroys views of hidden fragments:
+     * TRIM_MEMORY_RUNNING_LOW, TRIM_MEMORY_BACKGROUND, TRIM_MEMORY_RUNNING_CRITICAL, TRIM_MEMORY_MODERATE
+     * and TRIM_MEMORY_COMPLETE.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.SingleContainerFragmentSwapper#onTrimMemory(int)
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        mLog.v("onTrimMemory(): level[%d]", level);
+
+        for (Stack stack : mStacks.values()) {
+            stack.mFragmentSwapper.onTrimMemory(level);
+        }
+
+        switch (level) {
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW:
+            case ComponentCallbacks2.TRIM_MEMORY_BACKGROUND:
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL:
+            case ComponentCallbacks2.TRIM_MEMORY_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_COMPLETE:
+                detachHiddenStacks();
+                break;
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void swapFragment(SwapParams swapParams, F fragment) {
+        getCurrentStackFragmentSwapper().swapFragment(swapParams, fragment);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void swapFragments(SwapParams swapParams, List<F> fragments) {
+        getCurrentStackFragmentSwapper().swapFragments(swapParams, fragments);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void popFragment(PopParams popParams) {
+        getCurrentStackFragmentSwapper().popFragment(popParams);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void popFragments(int count, PopParams popParams) {
+        getCurrentStackFragmentSwapper().popFragments(count, popParams);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void popTo(String name, boolean inclusive, PopParams popParams) {
+        getCurrentStackFragmentSwapper().popTo(name, inclusive, popParams);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public <T extends F> void prefetch(Class<T> fragmentClass, Bundle arguments) {
+        getCurrentStackFragmentSwapper().prefetch(fragmentClass, arguments);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public F getCurrentFragment() {
+        return (mCurrentStack != null) ? mCurrentStack.mFragmentSwapper.getCurrentFragment() : null;
+    }
+
+    private SingleContainerFragmentSwapper<F> getCurrentStackFragmentSwapper() {
+        if (mCurrentStack == null) {
+            throw new IllegalStateException("No stack is selected");
+        }
+        return mCurrentStack.mFragmentSwapper;
+    }
+
+    private Stack getRootStack() {
+        Iterator<Stack> iterator = mStacks.values().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private class Stack {
+        private final String mName;
+        private final StackHostFragment mHost;
+        private final SingleContainerFragmentSwapper<F> mFragmentSwapper;
+
+        private Stack(String name, StackHostFragment host, SingleContainerFragmentSwapper<F> fragmentSwapper) {
+            mName = name;
+            mHost = host;
+            mFragmentSwapper = fragmentSwapper;
+        }
+    }
+
+    private class StackListener implements OnFragmentSwapperListener {
+        private final Stack mStack;
+
+        private StackListener(Stack stack) {
+            mStack = stack;
+        }
+
+        @Override
+        public void onFragmentEntered(FragmentSwapper fragmentSwapper, Fragment fragment) {
+            if (mStack == mCurrentStack) {
+                notifyNewFragment((F) fragment);
+            }
+        }
+
+        @Override
+        public void onCloseRequested(FragmentSwapper fragmentSwapper) {
+            if (mStack != mCurrentStack) {
+                return;
+            }
+
+            Stack rootStack = getRootStack();
+            if ((mStack != rootStack) && !mIsSavedStateActive) {
+                switchToStack(rootStack.mName);
+            } else {
+                notifyCloseRequest();
+            }
+        }
+    }
+}
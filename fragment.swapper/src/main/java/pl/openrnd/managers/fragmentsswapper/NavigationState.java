@@ -0,0 +1,53 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * States of FragmentSwapper navigation.
+ *
+ * State decides how back stack changes reported by the TransactionBackend are handled, so every
+ * operation results in exactly one back stack change evaluation, no matter how many transactions
+ * it executes.
+ */
+enum NavigationState {
+
+    /**
+     * No operation is in progress. Back stack changes are evaluated when reported,
+     * e.g. when FragmentManager pops the back stack on its own.
+     */
+    IDLE,
+
+    /**
+     * Operation executes its transactions. Reported back stack changes are ignored,
+     * the operation evaluates the back stack once all its transactions are executed.
+     */
+    EXECUTING,
+
+    /**
+     * Operation committed asynchronous transaction, e.g. pop. Next reported back stack change
+     * finishes the operation.
+     */
+    TRANSACTION_PENDING,
+
+    /**
+     * Back stack change is being evaluated and fragments are notified. Operations requested
+     * from fragments callbacks are not executed immediately.
+     */
+    EVALUATING
+}
@@ -0,0 +1,42 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * Interface used for getting saved state sizes measured by SavedStateProfiler.
+ */
+public interface OnSavedStateListener {
+
+    /**
+     * Method called when saved state of the back stack fragments was measured.
+     *
+     * @param fragmentSwapper Notification sender.
+     * @param report SavedStateReport object with saved state sizes.
+     */
+    void onSavedStateMeasured(FragmentSwapper fragmentSwapper, SavedStateReport report);
+
+    /**
+     * Method called when fragment result data exceeded the budget and was stored in a file.
+     *
+     * @param fragmentSwapper FragmentSwapper managing the fragment.
+     * @param fragmentName Name of the fragment which result was stored.
+     * @param size Size of the parceled result data in bytes.
+     */
+    void onResultSpilled(FragmentSwapper fragmentSwapper, String fragmentName, int size);
+}
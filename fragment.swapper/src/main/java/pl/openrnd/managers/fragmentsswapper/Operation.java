@@ -0,0 +1,130 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import java.util.List;
+
+/**
+ * Descriptor of FragmentSwapper operation.
+ *
+ * Operations are obtained from OperationPool and posted to the OperationScheduler directly,
+ * so requesting an operation does not allocate in steady state.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.OperationPool
+ *
+ * @param <F> Fragment class that is supported by FragmentSwapper.
+ */
+class Operation<F> implements Runnable {
+
+    /**
+     * Interface used for running operations posted to the OperationScheduler.
+     *
+     * @param <F> Fragment class that is supported by FragmentSwapper.
+     */
+    interface Callback<F> {
+
+        /**
+         * Method called when the posted operation is run by the OperationScheduler.
+         *
+         * @param operation Posted operation.
+         */
+        void onOperationRun(Operation<F> operation);
+    }
+
+    OperationType mType;
+    SwapParams mSwapParams;
+    PopParams mPopParams;
+    F mFragment;
+    List<F> mFragments;
+    int mCount;
+    String mName;
+    boolean mInclusive;
+
+    /**
+     * Information if the operation can be cancelled out by following pop operation.
+     *
+     * Set only for swap operations that add a new back stack entry.
+     */
+    boolean mCancellable;
+
+    /**
+     * Information if the operation was already checked for being a duplicate swap.
+     */
+    boolean mDuplicateChecked;
+
+    /**
+     * Time of the operation request in nanoseconds.
+     *
+     * @see System#nanoTime()
+     */
+    long mRequestTime;
+
+    /**
+     * Time the operation was postponed while holding Activity state was saved, in nanoseconds.
+     */
+    long mPausedTime;
+
+    /**
+     * Time the operation was postponed at, in nanoseconds.
+     */
+    long mPauseStartTime;
+
+    /**
+     * Next operation in the OperationPool.
+     */
+    Operation<F> mNextRecycled;
+
+    private final Callback<F> mCallback;
+
+    Operation(Callback<F> callback) {
+        mCallback = callback;
+    }
+
+    @Override
+    public void run() {
+        mCallback.onOperationRun(this);
+    }
+
+    boolean isSwap() {
+        return (mType == OperationType.SWAP) || (mType == OperationType.SWAP_MULTIPLE);
+    }
+
+    boolean isMainContextSwap() {
+        return isSwap() && mSwapParams.isMainContext();
+    }
+
+    /**
+     * Clears operation arguments, so the operation does not hold references when pooled.
+     */
+    void clear() {
+        mType = null;
+        mSwapParams = null;
+        mPopParams = null;
+        mFragment = null;
+        mFragments = null;
+        mCount = 0;
+        mName = null;
+        mInclusive = false;
+        mCancellable = false;
+        mDuplicateChecked = false;
+        mRequestTime = 0;
+        mPausedTime = 0;
+        mPauseStartTime = 0;
+    }
+}
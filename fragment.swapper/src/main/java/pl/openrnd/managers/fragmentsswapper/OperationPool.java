@@ -0,0 +1,106 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import java.util.List;
+
+/**
+ * Pool of FragmentSwapper operations.
+ *
+ * Operations are obtained when requested and recycled when executed or elided. Operations can be
+ * requested from any thread, so the pool is synchronized.
+ *
+ * @param <F> Fragment class that is supported by FragmentSwapper.
+ */
+class OperationPool<F> {
+
+    private static final int MAX_POOL_SIZE = 8;
+
+    private final Operation.Callback<F> mCallback;
+    private Operation<F> mRecycled;
+    private int mSize;
+
+    /**
+     * Class constructor.
+     *
+     * @param callback Callback of obtained operations.
+     */
+    OperationPool(Operation.Callback<F> callback) {
+        mCallback = callback;
+    }
+
+    Operation<F> swap(SwapParams swapParams, F fragment) {
+        Operation<F> operation = obtain(OperationType.SWAP);
+        operation.mSwapParams = swapParams;
+        operation.mFragment = fragment;
+        return operation;
+    }
+
+    Operation<F> swapMultiple(SwapParams swapParams, List<F> fragments) {
+        Operation<F> operation = obtain(OperationType.SWAP_MULTIPLE);
+        operation.mSwapParams = swapParams;
+        operation.mFragments = fragments;
+        return operation;
+    }
+
+    Operation<F> pop(int count, PopParams popParams) {
+        Operation<F> operation = obtain(OperationType.POP);
+        operation.mCount = count;
+        operation.mPopParams = popParams;
+        return operation;
+    }
+
+    Operation<F> popTo(String name, boolean inclusive, PopParams popParams) {
+        Operation<F> operation = obtain(OperationType.POP_TO);
+        operation.mName = name;
+        operation.mInclusive = inclusive;
+        operation.mPopParams = popParams;
+        return operation;
+    }
+
+    private synchronized Operation<F> obtain(OperationType type) {
+        Operation<F> operation = mRecycled;
+        if (operation != null) {
+            mRecycled = operation.mNextRecycled;
+            operation.mNextRecycled = null;
+            --mSize;
+        } else {
+            operation = new Operation<F>(mCallback);
+        }
+
+        operation.mType = type;
+        operation.mRequestTime = System.nanoTime();
+        return operation;
+    }
+
+    /**
+     * Returns operation to the pool. Operation must not be used after this call.
+     *
+     * @param operation Executed or elided operation.
+     */
+    synchronized void recycle(Operation<F> operation) {
+        operation.clear();
+
+        if (mSize < MAX_POOL_SIZE) {
+            operation.mNextRecycled = mRecycled;
+            mRecycled = operation;
+            ++mSize;
+        }
+    }
+}
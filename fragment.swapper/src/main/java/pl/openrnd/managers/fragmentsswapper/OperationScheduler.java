@@ -0,0 +1,41 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * Interface defining scheduler that executes FragmentSwapper operations and notifications.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.HandlerOperationScheduler
+ */
+public interface OperationScheduler {
+
+    /**
+     * Schedules operation execution.
+     *
+     * @param operation Operation to be executed.
+     */
+    void post(Runnable operation);
+
+    /**
+     * Gets information if the calling thread is the one that scheduled operations are executed on.
+     *
+     * @return True if called on the scheduler thread, false otherwise.
+     */
+    boolean isSchedulerThread();
+}
@@ -0,0 +1,53 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * Types of operations performed by FragmentSwapper.
+ */
+public enum OperationType {
+
+    /**
+     * Single fragment swap.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper#swapFragment
+     */
+    SWAP,
+
+    /**
+     * Multiple fragments swap.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper#swapFragments
+     */
+    SWAP_MULTIPLE,
+
+    /**
+     * Pop of one or more fragments.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper#popFragments
+     */
+    POP,
+
+    /**
+     * Pop to the fragment with provided name.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper#popTo
+     */
+    POP_TO
+}
@@ -0,0 +1,155 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.support.v4.app.Fragment;
+
+import java.util.ArrayDeque;
+
+/**
+ * Queue of operations postponed while holding Activity state is saved.
+ *
+ * Operations that have no effect on the final fragments stack are elided while being queued:
+ * <ul>
+ *     <li>main context swap cancels all operations queued before it, as the stack is cleared anyway,</li>
+ *     <li>swap that adds a new back stack entry followed by pop cancel each other out.</li>
+ * </ul>
+ * Fragments of elided swaps are never added, so they are returned to the FragmentPool.
+ *
+ * @param <F> Fragment class that is supported by FragmentSwapper.
+ */
+class PendingOperationsQueue<F extends Fragment & FragmentDescriptor> {
+
+    private ArrayDeque<Operation<F>> mOperations;
+    private OperationPool<F> mOperationPool;
+    private FragmentPool<F> mFragmentPool;
+    private int mElidedCount;
+
+    /**
+     * Class constructor.
+     *
+     * @param operationPool OperationPool that elided operations are returned to.
+     * @param fragmentPool FragmentPool that fragments of elided swaps are returned to or null.
+     */
+    PendingOperationsQueue(OperationPool<F> operationPool, FragmentPool<F> fragmentPool) {
+        mOperations = new ArrayDeque<Operation<F>>();
+        mOperationPool = operationPool;
+        mFragmentPool = fragmentPool;
+    }
+
+    /**
+     * Adds operation to the queue, eliding operations made redundant by it.
+     *
+     * @param operation Operation to be queued.
+     */
+    void add(Operation<F> operation) {
+        if (operation.isMainContextSwap()) {
+            mElidedCount += mOperations.size();
+            Operation<F> elided = mOperations.pollFirst();
+            while (elided != null) {
+                recycle(elided);
+                elided = mOperations.pollFirst();
+            }
+        } else if (operation.mType == OperationType.POP) {
+            while ((operation.mCount > 0) && isLastCancellable()) {
+                recycle(mOperations.removeLast());
+                --operation.mCount;
+                ++mElidedCount;
+            }
+
+            if (operation.mCount == 0) {
+                ++mElidedCount;
+                recycle(operation);
+                return;
+            }
+        }
+
+        mOperations.addLast(operation);
+    }
+
+    private void recycle(Operation<F> operation) {
+        if (mFragmentPool != null) {
+            if (operation.mType == OperationType.SWAP) {
+                mFragmentPool.release(operation.mFragment);
+            } else if (operation.mType == OperationType.SWAP_MULTIPLE) {
+                for (int i = 0; i < operation.mFragments.size(); ++i) {
+                    mFragmentPool.release(operation.mFragments.get(i));
+                }
+            }
+        }
+
+        mOperationPool.recycle(operation);
+    }
+
+    private boolean isLastCancellable() {
+        if (mOperations.isEmpty()) {
+            return false;
+        }
+
+        Operation<F> last = mOperations.getLast();
+        if (!last.mCancellable) {
+            return false;
+        }
+
+        //swap of fragment with the same name as queued earlier one pops back to it,
+        //so it can not be simply cancelled out
+        String name = last.mFragment.getName();
+        for (Operation<F> operation : mOperations) {
+            if ((operation != last) && swapsFragmentNamed(operation, name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean swapsFragmentNamed(Operation<F> operation, String name) {
+        if (operation.mType == OperationType.SWAP) {
+            return name.equals(operation.mFragment.getName());
+        } else if (operation.mType == OperationType.SWAP_MULTIPLE) {
+            for (int i = 0; i < operation.mFragments.size(); ++i) {
+                if (name.equals(operation.mFragments.get(i).getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes and returns the first queued operation.
+     *
+     * @return Operation or null if the queue is empty.
+     */
+    Operation<F> poll() {
+        return mOperations.pollFirst();
+    }
+
+    int size() {
+        return mOperations.size();
+    }
+
+    /**
+     * Gets number of operations that were elided since the queue creation.
+     *
+     * @return Number of elided operations.
+     */
+    int getElidedCount() {
+        return mElidedCount;
+    }
+}
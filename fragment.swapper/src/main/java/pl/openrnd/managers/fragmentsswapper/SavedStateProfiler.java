@@ -0,0 +1,195 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * Class measuring and limiting size of the back stack saved state.
+ *
+ * When the holding Activity is paused, state of every back stack fragment is parceled and measured.
+ * Results are reported to OnSavedStateListener and entries exceeding the warning size are logged.
+ * Fragment result data exceeding the budget is stored in a file in the application cache directory
+ * instead of the saved state Bundle. The file is deleted when the fragment is restored, saved again
+ * without it or destroyed for good.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.InitializationParams.Builder
+ */
+public class SavedStateProfiler {
+
+    /**
+     * Size value meaning that the limit is not used.
+     */
+    public static final int UNLIMITED = 0;
+
+    private int mResultSizeBudget;
+    private int mEntryWarningSize;
+    private OnSavedStateListener mListener;
+
+    private boolean mIsMeasuring;
+
+    private SavedStateProfiler(Builder builder) {
+        mResultSizeBudget = builder.mResultSizeBudget;
+        mEntryWarningSize = builder.mEntryWarningSize;
+        mListener = builder.mListener;
+    }
+
+    /**
+     * Gets maximum size of the fragment result data kept in the saved state Bundle.
+     *
+     * @return Size in bytes or UNLIMITED.
+     */
+    public int getResultSizeBudget() {
+        return mResultSizeBudget;
+    }
+
+    /**
+     * Gets size of the back stack entry state above which the warning is logged.
+     *
+     * @return Size in bytes or UNLIMITED.
+     */
+    public int getEntryWarningSize() {
+        return mEntryWarningSize;
+    }
+
+    /**
+     * Gets listener notified about measured sizes.
+     *
+     * @return OnSavedStateListener object or null.
+     */
+    public OnSavedStateListener getListener() {
+        return mListener;
+    }
+
+    boolean isMeasuringEnabled() {
+        return (mListener != null) || (mEntryWarningSize != UNLIMITED);
+    }
+
+    /**
+     * Sets information if the back stack state is being measured.
+     *
+     * State saved for measuring is discarded, so fragments do not store their result data in files
+     * and do not report it to the listener.
+     *
+     * @param measuring True if the state is being measured, false otherwise.
+     */
+    void setMeasuring(boolean measuring) {
+        mIsMeasuring = measuring;
+    }
+
+    boolean isMeasuring() {
+        return mIsMeasuring;
+    }
+
+    boolean isOverResultSizeBudget(int size) {
+        return (mResultSizeBudget != UNLIMITED) && (size > mResultSizeBudget);
+    }
+
+    boolean isOverEntryWarningSize(int size) {
+        return (mEntryWarningSize != UNLIMITED) && (size > mEntryWarningSize);
+    }
+
+    /**
+     * Gets size of the parceled object.
+     *
+     * @param parcelable Measured object.
+     * @return Size in bytes, 0 for null object.
+     */
+    public static int measure(Parcelable parcelable) {
+        if (parcelable == null) {
+            return 0;
+        }
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeParcelable(parcelable, 0);
+            return parcel.dataSize();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /**
+     * Profiler builder class.
+     */
+    public static class Builder {
+        private int mResultSizeBudget = UNLIMITED;
+        private int mEntryWarningSize = UNLIMITED;
+        private OnSavedStateListener mListener;
+
+        /**
+         * Sets maximum size of the fragment result data kept in the saved state Bundle.
+         *
+         * Larger result data is stored in a file and read when the fragment is restored.
+         *
+         * Parameter optional. UNLIMITED by default.
+         *
+         * @param resultSizeBudget Size in bytes or UNLIMITED.
+         * @return Builder object
+         */
+        public Builder resultSizeBudget(int resultSizeBudget) {
+            if (resultSizeBudget < UNLIMITED) {
+                throw new IllegalArgumentException("Invalid result size budget");
+            }
+
+            mResultSizeBudget = resultSizeBudget;
+            return this;
+        }
+
+        /**
+         * Sets size of the back stack entry state above which the warning is logged.
+         *
+         * Parameter optional. UNLIMITED by default.
+         *
+         * @param entryWarningSize Size in bytes or UNLIMITED.
+         * @return Builder object
+         */
+        public Builder entryWarningSize(int entryWarningSize) {
+            if (entryWarningSize < UNLIMITED) {
+                throw new IllegalArgumentException("Invalid entry warning size");
+            }
+
+            mEntryWarningSize = entryWarningSize;
+            return this;
+        }
+
+        /**
+         * Sets listener notified about measured sizes.
+         *
+         * Parameter optional.
+         *
+         * @param listener OnSavedStateListener object
+         * @return Builder object
+         */
+        public Builder listener(OnSavedStateListener listener) {
+            mListener = listener;
+            return this;
+        }
+
+        /**
+         * Builds SavedStateProfiler object with current arguments state.
+         *
+         * @return SavedStateProfiler object.
+         */
+        public SavedStateProfiler build() {
+            return new SavedStateProfiler(this);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sizes of the saved state of back stack fragments.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.SavedStateProfiler
+ */
+public class SavedStateReport {
+
+    /**
+     * Saved state size of a single back stack fragment.
+     */
+    public static class Entry {
+        private final String mName;
+        private final int mDepth;
+        private final int mSize;
+        private final boolean mOverWarningSize;
+
+        Entry(String name, int depth, int size, boolean overWarningSize) {
+            mName = name;
+            mDepth = depth;
+            mSize = size;
+            mOverWarningSize = overWarningSize;
+        }
+
+        /**
+         * Gets fragment name.
+         *
+         * @return Fragment name.
+         */
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * Gets fragment depth in the back stack, 0 is the root fragment.
+         *
+         * @return Fragment depth.
+         */
+        public int getDepth() {
+            return mDepth;
+        }
+
+        /**
+         * Gets size of the parceled fragment state.
+         *
+         * @return Size in bytes.
+         */
+        public int getSize() {
+            return mSize;
+        }
+
+        /**
+         * Gets information if the size exceeds entry warning size of the SavedStateProfiler.
+         *
+         * @return True if the size exceeds warning size, false otherwise.
+         */
+        public boolean isOverWarningSize() {
+            return mOverWarningSize;
+        }
+    }
+
+    private final List<Entry> mEntries;
+    private final int mTotalSize;
+
+    SavedStateReport(List<Entry> entries, int totalSize) {
+        mEntries = Collections.unmodifiableList(entries);
+        mTotalSize = totalSize;
+    }
+
+    /**
+     * Gets sizes of the back stack fragments states, starting from the root fragment.
+     *
+     * @return List of Entry objects.
+     */
+    public List<Entry> getEntries() {
+        return mEntries;
+    }
+
+    /**
+     * Gets total size of the back stack fragments states.
+     *
+     * @return Size in bytes.
+     */
+    public int getTotalSize() {
+        return mTotalSize;
+    }
+}
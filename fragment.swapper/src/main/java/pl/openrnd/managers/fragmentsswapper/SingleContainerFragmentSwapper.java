@@ -18,15 +18,26 @@
 
 package pl.openrnd.managers.fragmentsswapper;
 
+import android.os.Build;
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
 import android.os.Bundle;
-import android.os.Handler;
 import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentManager;
-import android.support.v4.app.FragmentTransaction;
-import android.util.Log;
-
-import java.util.LinkedList;
+import android.view.Display;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+import android.view.animation.Animation;
+import android.view.animation.AnimationUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * FragmentSwapper that supports only one container for fragments transactions.
@@ -38,31 +49,60 @@ import java.util.LinkedList;
  */
 public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescriptor> implements FragmentSwapper<F> {
     private static final String TAG = SingleContainerFragmentSwapper.class.getSimpleName();
+    private static final String STACK_TAG_PREFIX = TAG + ":";
+    private static final int INITIAL_STACK_TAGS_CAPACITY = 16;
+
+    private static final long MAX_FRAME_MONITORING_NANOS = 2000000000L;
+    private static final long MAX_TRANSITION_NANOS = 2000000000L;
 
     private InitializationParams mInitializationParams;
+    private FormattingLogger mLog;
+
+    //tags are looked up on every stack change, so they are built once per depth
+    private String[] mStackTags = new String[INITIAL_STACK_TAGS_CAPACITY];
 
     private boolean mIsAnimationEnabled;
-    private boolean mPopInProgress;
+    private boolean mIsAnimationSuppressed;
+    private boolean mIsTransitionInFlight;
+    private long mTransitionStartTime;
 
-    private Handler mUiHandler;
+    private OperationScheduler mOperationScheduler;
     private F mContentFragment;
     private int mLastStackCount;
 
     private Integer mRequestCode;
     private int mResultCode;
     private Bundle mResultBundle;
+    private Object mResultValue;
 
     private boolean mIsSavedStateActive;
 
-    private LinkedList<Runnable> mPendingOperations;
+    //operations may be posted from any thread, they are run on the scheduler thread
+    private final AtomicInteger mScheduledOperationsCount = new AtomicInteger();
+    private NavigationState mState = NavigationState.IDLE;
+    private long mLastOperationLatency;
+    private int mSuppressedOperationsCount;
+
+    private String mLastSwapName;
+    private Integer mLastSwapRequestCode;
+    private long mLastSwapTime;
+
+    private OperationPool<F> mOperationPool;
+    private PendingOperationsQueue<F> mPendingOperations;
+    private ArrayList<F> mEnteredFragments;
 
     private OnFragmentSwapperListener mOnFragmentSwapperListener;
 
+    private OnTransitionMetricsListener mOnTransitionMetricsListener;
+    private TransitionMetrics mTransitionMetrics;
+
+    private OnJankStatsListener mOnJankStatsListener;
+    private FrameMonitor mFrameMonitor;
+
     /**
      * Default constructor.
      */
     public SingleContainerFragmentSwapper() {
-        mUiHandler = new Handler(Looper.getMainLooper());
     }
 
     /**
@@ -76,9 +116,13 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
         }
 
         mInitializationParams = initializationParams;
-        getFragmentManager().addOnBackStackChangedListener(mOnBackStackChangedListener);
-        mLastStackCount = getFragmentManager().getBackStackEntryCount();
-        mPendingOperations = new LinkedList<Runnable>();
+        mLog = new FormattingLogger(initializationParams.getLogger(), TAG);
+        mOperationScheduler = initializationParams.getOperationScheduler();
+        getTransactionBackend().addOnBackStackChangedListener(mOnBackStackChangedListener);
+        mLastStackCount = getTransactionBackend().getBackStackEntryCount();
+        mOperationPool = new OperationPool<F>(mOperationCallback);
+        mPendingOperations = new PendingOperationsQueue<F>(mOperationPool, initializationParams.getFragmentPool());
+        mEnteredFragments = new ArrayList<F>();
     }
 
     /**
@@ -86,9 +130,11 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
      */
     @Override
     public void onPause() {
-        Log.v(TAG, "onPause()");
+        mLog.v("onPause()");
 
         mIsSavedStateActive = true;
+
+        measureSavedState();
     }
 
     /**
@@ -96,13 +142,82 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
      */
     @Override
     public void onResume() {
-        Log.v(TAG, "onResume()");
+        mLog.v("onResume()");
 
         mIsSavedStateActive = false;
 
         handlePendingOperations();
     }
 
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     *
+     * Memory is released in stages. Levels are not ordered by severity (e.g. TRIM_MEMORY_UI_HIDDEN
+     * is greater than TRIM_MEMORY_RUNNING_CRITICAL), so each level is mapped to its stage:
+     * <ul>
+     *     <li>TRIM_MEMORY_RUNNING_MODERATE, TRIM_MEMORY_UI_HIDDEN - prefetched views are released,</li>
+     *     <li>TRIM_MEMORY_RUNNING_LOW, TRIM_MEMORY_BACKGROUND - pooled fragments are released and views
+     *     of all hidden back stack fragments are destroyed,</li>
+     *     <li>TRIM_MEMORY_RUNNING_CRITICAL, TRIM_MEMORY_MODERATE, TRIM_MEMORY_COMPLETE - additionally
+     *     fragments are asked to release their caches.</li>
+     * </ul>
+     * Other levels are ignored.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        mLog.v("onTrimMemory(): level[%d]", level);
+
+        switch (level) {
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN:
+                releasePrefetchedViews();
+                break;
+
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW:
+            case ComponentCallbacks2.TRIM_MEMORY_BACKGROUND:
+                releaseHiddenFragments();
+                break;
+
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL:
+            case ComponentCallbacks2.TRIM_MEMORY_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_COMPLETE:
+                releaseHiddenFragments();
+                notifyReleaseMemory(level);
+                break;
+        }
+    }
+
+    private void releasePrefetchedViews() {
+        FragmentPool<F> fragmentPool = mInitializationParams.getFragmentPool();
+        if (fragmentPool != null) {
+            fragmentPool.releasePrefetchedViews();
+        }
+    }
+
+    private void releaseHiddenFragments() {
+        FragmentPool<F> fragmentPool = mInitializationParams.getFragmentPool();
+        if (fragmentPool != null) {
+            fragmentPool.clear();
+        }
+
+        detachHiddenFragments(0, getTransactionBackend().getBackStackEntryCount() - 1);
+    }
+
+    private void notifyReleaseMemory(int level) {
+        TransactionBackend transactionBackend = getTransactionBackend();
+
+        if (mContentFragment != null) {
+            mContentFragment.onReleaseMemory(level);
+        }
+
+        for (int depth = transactionBackend.getBackStackEntryCount() - 1; depth >= 0; --depth) {
+            Fragment fragment = transactionBackend.findFragmentByTag(getStackTag(depth));
+            if ((fragment != null) && (fragment != mContentFragment)) {
+                ((F) fragment).onReleaseMemory(level);
+            }
+        }
+    }
+
     /**
      * Method to be called with Bundle object containing state of holding Activity.
      *
@@ -111,7 +226,7 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
      * @param savedInstanceState Bundle object with saved state.
      */
     public void onRestoreInstanceState(Bundle savedInstanceState) {
-        Log.v(TAG, String.format("onRestoreInstanceState(): savedInstanceState[%b]", savedInstanceState != null));
+        mLog.v("onRestoreInstanceState(): savedInstanceState[%b]", savedInstanceState != null);
 
         if (savedInstanceState == null) {
             mInitializationParams.getScreenManager().onMainScreenRequested();
@@ -119,37 +234,212 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
             if (findCurrentFragment()) {
                 notifyNewFragment(mContentFragment);
             }
-            mOnBackStackChangedListener.onBackStackChanged();
+            evaluateStackChange();
         }
     }
 
     private void handlePendingOperations() {
-        Log.v(TAG, String.format("handlePendingOperations(): size[%d]", mPendingOperations.size()));
+        mLog.v("handlePendingOperations(): size[%d], elided[%d]", mPendingOperations.size(), mPendingOperations.getElidedCount());
 
-        LinkedList<Runnable> pendingOperations = new LinkedList<Runnable>(mPendingOperations);
-        mPendingOperations.clear();
+        Operation<F> operation = mPendingOperations.poll();
+        while (operation != null) {
+            operation.mPausedTime += System.nanoTime() - operation.mPauseStartTime;
+            performOperationIfAllowed(operation);
 
-        Runnable runnable = pendingOperations.pollFirst();
-        while (runnable != null) {
-            performOperationIfAllowed(runnable);
+            operation = mPendingOperations.poll();
+        }
+    }
 
-            runnable = pendingOperations.pollFirst();
+    private void performOperationIfAllowed(Operation<F> operation) {
+        if (canExecuteImmediately()) {
+            mLog.v("performOperationIfAllowed(): executing immediately");
+
+            if (!isDuplicateSwap(operation)) {
+                executeOperation(operation);
+            }
+            return;
         }
+
+        mScheduledOperationsCount.incrementAndGet();
+        //operation is run by mOperationCallback
+        mOperationScheduler.post(operation);
     }
 
-    private void performOperationIfAllowed(final Runnable operation) {
-        mUiHandler.post(new Runnable() {
-            @Override
-            public void run() {
-                Log.v(TAG, String.format("performOperationIfAllowed(): isSavedStateActive[%b]", mIsSavedStateActive));
+    private Operation.Callback<F> mOperationCallback = new Operation.Callback<F>() {
 
-                if (mIsSavedStateActive) {
-                    mPendingOperations.addLast(operation);
-                } else {
-                    operation.run();
+        @Override
+        public void onOperationRun(Operation<F> operation) {
+            mLog.v("performOperationIfAllowed(): isSavedStateActive[%b]", mIsSavedStateActive);
+
+            mScheduledOperationsCount.decrementAndGet();
+            if (isDuplicateSwap(operation)) {
+                return;
+            }
+
+            if (mIsSavedStateActive && !canExecuteAllowingStateLoss(operation)) {
+                if (operation.mType == OperationType.SWAP) {
+                    operation.mCancellable = isCancellable(operation.mSwapParams, operation.mFragment);
                 }
+                operation.mPauseStartTime = System.nanoTime();
+                mPendingOperations.add(operation);
+            } else {
+                executeOperation(operation);
             }
-        });
+        }
+    };
+
+    private boolean canExecuteImmediately() {
+        //operation can not overtake already scheduled ones or be nested in the one in progress
+        return mInitializationParams.isExecuteImmediately()
+                && !mIsSavedStateActive
+                && (mState == NavigationState.IDLE)
+                && (mScheduledOperationsCount.get() == 0)
+                && mOperationScheduler.isSchedulerThread();
+    }
+
+    private boolean isCancellable(SwapParams swapParams, F fragment) {
+        if (!swapParams.isAddToBackStack() || swapParams.isMainContext()) {
+            return false;
+        }
+
+        //swap of fragment that is already in back stack pops back to it
+        return !isInBackStack(fragment.getName());
+    }
+
+    private boolean isInBackStack(String name) {
+        TransactionBackend transactionBackend = getTransactionBackend();
+        for (int i = transactionBackend.getBackStackEntryCount() - 1; i >= 0; --i) {
+            if (name.equals(transactionBackend.getBackStackEntryName(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean canExecuteAllowingStateLoss(Operation<F> operation) {
+        if (!operation.isSwap() || (getCommitStrategy(operation.mSwapParams) != CommitStrategy.ALLOWING_STATE_LOSS)
+                || (mPendingOperations.size() > 0)) {
+            return false;
+        }
+
+        //back stack can not be popped once the state is saved
+        return !operation.mSwapParams.isMainContext()
+                && ((operation.mType != OperationType.SWAP) || !isInBackStack(operation.mFragment.getName()));
+    }
+
+    private CommitStrategy getCommitStrategy(SwapParams swapParams) {
+        CommitStrategy result = swapParams.getCommitStrategy();
+        return result != null ? result : mInitializationParams.getCommitStrategy();
+    }
+
+    private void executeOperation(Operation<F> operation) {
+        mLastOperationLatency = System.nanoTime() - operation.mRequestTime;
+
+        if (mState == NavigationState.TRANSACTION_PENDING) {
+            //previous transaction has to be evaluated before the stack is changed again
+            getTransactionBackend().executePendingTransactions();
+            if (mState == NavigationState.TRANSACTION_PENDING) {
+                mLog.w("executeOperation(): pending transaction was not reported, entries[%d]", getTransactionBackend().getBackStackEntryCount());
+                mState = NavigationState.IDLE;
+            }
+        }
+        mState = NavigationState.EXECUTING;
+
+        //at most one transition animates in the container
+        mIsAnimationSuppressed = interruptTransition()
+                && (mInitializationParams.getTransitionInterruptPolicy() == TransitionInterruptPolicy.CANCEL);
+
+        if (mOnTransitionMetricsListener != null) {
+            mTransitionMetrics = new TransitionMetrics(operation.mType, operation.mSwapParams, operation.mPopParams);
+            mTransitionMetrics.mPausedTime = operation.mPausedTime;
+            mTransitionMetrics.mQueueWaitTime = mLastOperationLatency - operation.mPausedTime;
+        }
+
+        try {
+            performOperation(operation);
+        } finally {
+            if (mState == NavigationState.EXECUTING) {
+                mState = NavigationState.IDLE;
+            }
+            if (mState != NavigationState.TRANSACTION_PENDING) {
+                //operation did not start a transaction, next one animates again
+                mIsAnimationSuppressed = false;
+            }
+            mOperationPool.recycle(operation);
+        }
+
+        if (mTransitionMetrics != null) {
+            if (mTransitionMetrics.mBackStackChangedTime != TransitionMetrics.NOT_MEASURED) {
+                finishTransitionMetrics();
+            } else if (!mTransitionMetrics.isExecuting()) {
+                //operation did not change current fragment
+                mTransitionMetrics = null;
+            }
+            //otherwise asynchronous transaction is finished when FragmentManager executes it
+        }
+    }
+
+    private void performOperation(Operation<F> operation) {
+        switch (operation.mType) {
+            case SWAP:
+                performSwap(operation.mSwapParams, operation.mFragment);
+                break;
+
+            case SWAP_MULTIPLE:
+                performSwapMultiple(operation.mSwapParams, operation.mFragments);
+                break;
+
+            case POP:
+                popEntries(operation.mCount, operation.mPopParams);
+                break;
+
+            case POP_TO:
+                performPopTo(operation.mName, operation.mInclusive, operation.mPopParams);
+                break;
+        }
+    }
+
+    /**
+     * Gets latency of the most recently executed operation.
+     *
+     * Latency is measured from the operation request (e.g. swapFragment() call) to the start
+     * of its fragments transaction. It includes time spent in the OperationScheduler queue
+     * and time the operation was postponed while holding Activity state was saved.
+     *
+     * @return Latency in nanoseconds.
+     */
+    public long getLastOperationLatencyNanos() {
+        return mLastOperationLatency;
+    }
+
+    /**
+     * Gets number of operations that were postponed while holding Activity state was saved
+     * and then dropped, because they had no effect on the final fragments stack.
+     *
+     * @return Number of elided operations.
+     */
+    public int getElidedOperationsCount() {
+        return mPendingOperations.getElidedCount();
+    }
+
+    /**
+     * Gets number of swaps that were dropped as duplicates of the previous swap.
+     *
+     * @see pl.openrnd.managers.fragmentsswapper.InitializationParams.Builder#duplicateSwapWindow
+     *
+     * @return Number of suppressed operations.
+     */
+    public int getSuppressedOperationsCount() {
+        return mSuppressedOperationsCount;
+    }
+
+    /**
+     * Gets current navigation state.
+     *
+     * @return NavigationState value.
+     */
+    NavigationState getNavigationState() {
+        return mState;
     }
 
     /**
@@ -161,21 +451,302 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
         mOnFragmentSwapperListener = listener;
     }
 
-    private void notifyNewFragment(final F fragment) {
-        Log.v(TAG, String.format("notifyNewFragment(): fragment[%s]", fragment != null ? fragment.getName() : null));
+    /**
+     * Sets OnTransitionMetricsListener object that will receive timing of swap and pop transitions.
+     *
+     * Transitions are not measured if the listener is not set.
+     *
+     * @param listener OnTransitionMetricsListener object or null to disable measurement.
+     */
+    public void setOnTransitionMetricsListener(OnTransitionMetricsListener listener) {
+        mOnTransitionMetricsListener = listener;
+        if (listener == null) {
+            mTransitionMetrics = null;
+        }
+    }
+
+    /**
+     * Sets OnJankStatsListener object that will receive frame statistics of transition animations.
+     *
+     * Frames are counted with Choreographer from the transaction start until the enter animation
+     * of the new fragment ends, so monitoring is available on Android API 16 and newer only.
+     * Method must be called on the main thread.
+     *
+     * @param listener OnJankStatsListener object or null to disable monitoring.
+     */
+    public void setOnJankStatsListener(OnJankStatsListener listener) {
+        mOnJankStatsListener = listener;
+
+        if ((listener != null) && (mFrameMonitor == null) && (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)) {
+            mFrameMonitor = new FrameMonitor(MAX_FRAME_MONITORING_NANOS, mFrameMonitorListener);
+        } else if ((listener == null) && (mFrameMonitor != null)) {
+            mFrameMonitor.disarm(null);
+            mFrameMonitor = null;
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void onEnterAnimationEnd(F fragment) {
+        mIsTransitionInFlight = false;
+
+        if (mFrameMonitor != null) {
+            mFrameMonitor.disarm(fragment.getName());
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void onFragmentRemoved(F fragment) {
+        FragmentPool<F> fragmentPool = mInitializationParams.getFragmentPool();
+        if (fragmentPool != null) {
+            mLog.v("onFragmentRemoved(): fragment[%s]", fragment.getName());
+
+            fragmentPool.onFragmentRemoved(fragment);
+        }
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     *
+     * FragmentPool is required.
+     */
+    @Override
+    public <T extends F> void prefetch(final Class<T> fragmentClass, final Bundle arguments) {
+        if (mInitializationParams.getFragmentPool() == null) {
+            throw new IllegalStateException("FragmentPool is required for prefetch");
+        }
 
-        mUiHandler.post(new Runnable() {
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                performPrefetch(fragmentClass, arguments);
+                return false;
+            }
+        });
+    }
+
+    private <T extends F> void performPrefetch(Class<T> fragmentClass, Bundle arguments) {
+        //fragment view is inflated in the context of the current fragment Activity
+        Activity activity = (mContentFragment != null) ? mContentFragment.getActivity() : null;
+        if ((activity == null) || mIsSavedStateActive) {
+            mLog.v("performPrefetch(): fragment[%s] skipped", fragmentClass.getSimpleName());
+            return;
+        }
+
+        ViewGroup container = findContainer();
+        if (container == null) {
+            mLog.v("performPrefetch(): fragment[%s] skipped, no container", fragmentClass.getSimpleName());
+            return;
+        }
+
+        FragmentPool<F> fragmentPool = mInitializationParams.getFragmentPool();
+        boolean prefetched = fragmentPool.prefetch(fragmentClass, arguments, activity.getLayoutInflater(), container);
+
+        mLog.v("performPrefetch(): fragment[%s], prefetched[%b]", fragmentClass.getSimpleName(), prefetched);
+    }
+
+    private void onTransitionStarted() {
+        mIsTransitionInFlight = isAnimationEnabled();
+        mTransitionStartTime = System.nanoTime();
+
+        if (mFrameMonitor != null) {
+            mFrameMonitor.arm(getDisplay());
+        }
+    }
+
+    private Display getDisplay() {
+        //the new fragment is not attached yet, the current one shares the Activity with it
+        Activity activity = (mContentFragment != null) ? mContentFragment.getActivity() : null;
+        return (activity != null) ? activity.getWindowManager().getDefaultDisplay() : null;
+    }
+
+    private boolean interruptTransition() {
+        TransitionInterruptPolicy policy = mInitializationParams.getTransitionInterruptPolicy();
+        if (!isTransitionInFlight() || (policy == TransitionInterruptPolicy.NONE)) {
+            return false;
+        }
+        mIsTransitionInFlight = false;
+
+        ViewGroup container = findContainer();
+        if (container == null) {
+            return false;
+        }
+
+        int interruptedCount = 0;
+        for (int i = container.getChildCount() - 1; i >= 0; --i) {
+            //end of exit animation removes fragment view from the container
+            if (i >= container.getChildCount()) {
+                continue;
+            }
+
+            View view = container.getChildAt(i);
+            Animation animation = view.getAnimation();
+            if ((animation != null) && !animation.hasEnded()) {
+                //end listeners complete the transition, e.g. FragmentManager removes exiting fragment
+                if ((policy != TransitionInterruptPolicy.FAST_FORWARD) || !fastForward(view, animation)) {
+                    animation.cancel();
+                    view.clearAnimation();
+                }
+                ++interruptedCount;
+            }
+        }
+
+        mLog.v("interruptTransition(): policy[%s], interrupted[%d]", policy, interruptedCount);
+        return interruptedCount > 0;
+    }
+
+    private boolean isTransitionInFlight() {
+        //end of the enter animation is not reported by fragments that do not extend BaseFragment,
+        //or if the animation is never drawn, so the flag expires like frame monitoring does
+        return mIsTransitionInFlight && (System.nanoTime() - mTransitionStartTime < MAX_TRANSITION_NANOS);
+    }
+
+    private static boolean hasRunningAnimation(Fragment fragment) {
+        View view = (fragment != null) ? fragment.getView() : null;
+        Animation animation = (view != null) ? view.getAnimation() : null;
+        return (animation != null) && !animation.hasEnded();
+    }
+
+    private static boolean fastForward(View view, Animation animation) {
+        long duration = animation.computeDurationHint();
+        if (duration < 0) {
+            //infinitely repeated animation has no end to jump to
+            return false;
+        }
+
+        //animation is drawn in its final state in the next frame and ends the regular way
+        animation.setStartTime(AnimationUtils.currentAnimationTimeMillis() - duration);
+        view.invalidate();
+        return true;
+    }
+
+    private ViewGroup findContainer() {
+        //content frame id is not unique if several swappers share the hierarchy, e.g. in MultiContainerFragmentSwapper,
+        //so the container is the parent of the current fragment view
+        View view = (mContentFragment != null) ? mContentFragment.getView() : null;
+        ViewParent parent = (view != null) ? view.getParent() : null;
+        return (parent instanceof ViewGroup) ? (ViewGroup) parent : null;
+    }
+
+    private FrameMonitor.Listener mFrameMonitorListener = new FrameMonitor.Listener() {
+
+        @Override
+        public void onMonitoringFinished(JankStats stats) {
+            if (stats.mFrameCount == 0) {
+                //enter animation ended before the first frame, transition was not animated
+                return;
+            }
+
+            if ((stats.mName == null) && (mContentFragment != null)) {
+                stats.mName = mContentFragment.getName();
+            }
+
+            notifyJankMeasured(stats);
+        }
+    };
+
+    private void notifyJankMeasured(final JankStats stats) {
+        mLog.v("notifyJankMeasured(): %s", stats);
+
+        mOperationScheduler.post(new Runnable() {
             @Override
             public void run() {
-                if (mOnFragmentSwapperListener != null) {
-                    mOnFragmentSwapperListener.onFragmentEntered(SingleContainerFragmentSwapper.this, fragment);
+                if (mOnJankStatsListener != null) {
+                    mOnJankStatsListener.onJankMeasured(SingleContainerFragmentSwapper.this, stats);
                 }
             }
         });
     }
 
+    private void commit(TransactionBackend.Transaction fragmentTransaction, CommitStrategy commitStrategy) {
+        long startTime = System.nanoTime();
+        if (commitStrategy == CommitStrategy.ALLOWING_STATE_LOSS) {
+            fragmentTransaction.commitAllowingStateLoss();
+        } else {
+            fragmentTransaction.commit();
+        }
+        if (mTransitionMetrics != null) {
+            mTransitionMetrics.mCommitTime += System.nanoTime() - startTime;
+        }
+    }
+
+    private void executePendingTransactions() {
+        if (mTransitionMetrics != null) {
+            mTransitionMetrics.markExecuteStarted();
+        }
+        getTransactionBackend().executePendingTransactions();
+        if (mTransitionMetrics != null) {
+            mTransitionMetrics.markExecuteFinished();
+        }
+    }
+
+    private void finishTransitionMetrics() {
+        final TransitionMetrics metrics = mTransitionMetrics;
+        mTransitionMetrics = null;
+
+        metrics.mName = (mContentFragment != null) ? mContentFragment.getName() : null;
+
+        final View view = (mContentFragment != null) ? mContentFragment.getView() : null;
+        if ((view == null) || !view.getViewTreeObserver().isAlive()) {
+            notifyTransitionMeasured(metrics);
+            return;
+        }
+
+        final long finishTime = System.nanoTime();
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                metrics.mFirstFrameTime = System.nanoTime() - finishTime;
+
+                ViewTreeObserver viewTreeObserver = view.getViewTreeObserver();
+                if (viewTreeObserver.isAlive()) {
+                    viewTreeObserver.removeOnPreDrawListener(this);
+                }
+
+                notifyTransitionMeasured(metrics);
+                return true;
+            }
+        });
+    }
+
+    private void notifyTransitionMeasured(final TransitionMetrics metrics) {
+        mLog.v("notifyTransitionMeasured(): %s", metrics);
+
+        mOperationScheduler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (mOnTransitionMetricsListener != null) {
+                    mOnTransitionMetricsListener.onTransitionMeasured(SingleContainerFragmentSwapper.this, metrics);
+                }
+            }
+        });
+    }
+
+    private void notifyNewFragment(F fragment) {
+        mLog.v("notifyNewFragment(): fragment[%s]", fragment != null ? fragment.getName() : null);
+
+        //fragments are notified in order, one per posted mNotifyNewFragmentRunnable run
+        mEnteredFragments.add(fragment);
+        mOperationScheduler.post(mNotifyNewFragmentRunnable);
+    }
+
+    private Runnable mNotifyNewFragmentRunnable = new Runnable() {
+        @Override
+        public void run() {
+            F fragment = mEnteredFragments.remove(0);
+            if (mOnFragmentSwapperListener != null) {
+                mOnFragmentSwapperListener.onFragmentEntered(SingleContainerFragmentSwapper.this, fragment);
+            }
+        }
+    };
+
     private void notifyPause(final F fragment) {
-        Log.v(TAG, String.format("notifyPause(): fragment[%s]", fragment != null ? fragment.getName() : null));
+        mLog.v("notifyPause(): fragment[%s]", fragment != null ? fragment.getName() : null);
 
         if (fragment != null) {
             fragment.onFragmentPause();
@@ -183,7 +754,7 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
     }
 
     private void notifyResume(final F fragment) {
-        Log.v(TAG, String.format("notifyResume(): fragment[%s]", fragment != null ? fragment.getName() : null));
+        mLog.v("notifyResume(): fragment[%s]", fragment != null ? fragment.getName() : null);
 
         if (fragment != null) {
             fragment.onFragmentResume();
@@ -191,42 +762,89 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
     }
 
     private void notifyCloseRequest() {
-        Log.v(TAG, "notifyCloseRequest()");
+        mLog.v("notifyCloseRequest()");
 
-        mUiHandler.post(new Runnable() {
-            @Override
-            public void run() {
-                if (mOnFragmentSwapperListener != null) {
-                    mOnFragmentSwapperListener.onCloseRequested(SingleContainerFragmentSwapper.this);
-                }
+        mOperationScheduler.post(mNotifyCloseRequestRunnable);
+    }
+
+    private Runnable mNotifyCloseRequestRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mOnFragmentSwapperListener != null) {
+                mOnFragmentSwapperListener.onCloseRequested(SingleContainerFragmentSwapper.this);
             }
-        });
+        }
+    };
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void popFragment(PopParams popParams) {
+        performOperationIfAllowed(mOperationPool.pop(1, popParams));
     }
 
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
      */
     @Override
-    public void popFragment(final PopParams popParams) {
-        Runnable operation = new Runnable() {
-            @Override
-            public void run() {
-                int stackEntries = getFragmentManager().getBackStackEntryCount();
-                Log.v(TAG, String.format("popFragment(): entries[%d]", stackEntries));
+    public void popFragments(int count, PopParams popParams) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one fragment has to be popped");
+        }
 
-                notifyPause(getCurrentFragment());
+        performOperationIfAllowed(mOperationPool.pop(count, popParams));
+    }
 
-                obtainResultsFromCurrentFragment();
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void popTo(String name, boolean inclusive, PopParams popParams) {
+        performOperationIfAllowed(mOperationPool.popTo(name, inclusive, popParams));
+    }
 
-                if (stackEntries > 1) {
-                    setAnimationEnabled(popParams.isAnimate());
-                    getFragmentManager().popBackStack();
-                } else {
-                    notifyCloseRequest();
+    private void performPopTo(String name, boolean inclusive, PopParams popParams) {
+        TransactionBackend transactionBackend = getTransactionBackend();
+        int stackEntries = transactionBackend.getBackStackEntryCount();
+
+        for (int i = stackEntries - 1; i >= 0; --i) {
+            if ((name != null) && name.equals(transactionBackend.getBackStackEntryName(i))) {
+                int count = stackEntries - i - (inclusive ? 0 : 1);
+                if (count > 0) {
+                    popEntries(count, popParams);
                 }
+                return;
             }
-        };
-        performOperationIfAllowed(operation);
+        }
+
+        mLog.v("performPopTo(): fragment[%s] not found", name);
+    }
+
+    private void popEntries(int count, PopParams popParams) {
+        TransactionBackend transactionBackend = getTransactionBackend();
+        int stackEntries = transactionBackend.getBackStackEntryCount();
+        mLog.v("popEntries(): entries[%d], count[%d]", stackEntries, count);
+
+        notifyPause(getCurrentFragment());
+
+        obtainResultsFromCurrentFragment();
+
+        if (stackEntries > count) {
+            setAnimationEnabled(popParams.isAnimate());
+            //all entries are popped in one transaction, fragments in between are not resumed
+            onTransitionStarted();
+            long startTime = System.nanoTime();
+            transactionBackend.popBackStack(stackEntries - count, true);
+            mState = NavigationState.TRANSACTION_PENDING;
+            if (mTransitionMetrics != null) {
+                mTransitionMetrics.mCommitTime += System.nanoTime() - startTime;
+                mTransitionMetrics.markExecuteStarted();
+            }
+        } else {
+            clearResults();
+            notifyCloseRequest();
+        }
     }
 
     /**
@@ -245,133 +863,335 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
      * @param popParams PopParams object with pop transaction parameters.
      */
     public void onBackPressed(PopParams popParams) {
-        Log.v(TAG, String.format("onBackPressed(): fragment[%s], animate[%b]", mContentFragment != null ? mContentFragment.getName() : null, popParams.isAnimate()));
+        mLog.v("onBackPressed(): fragment[%s], animate[%b]", mContentFragment != null ? mContentFragment.getName() : null, popParams.isAnimate());
 
         if (mContentFragment != null) {
             mContentFragment.onBackPressed(popParams);
         }
     }
 
-    private FragmentManager getFragmentManager() {
-        return mInitializationParams.getFragmentManager();
+    private TransactionBackend getTransactionBackend() {
+        return mInitializationParams.getTransactionBackend();
+    }
+
+    private String getStackTag(int depth) {
+        if (depth >= mStackTags.length) {
+            mStackTags = Arrays.copyOf(mStackTags, Math.max(depth + 1, mStackTags.length * 2));
+        }
+
+        String result = mStackTags[depth];
+        if (result == null) {
+            result = STACK_TAG_PREFIX + depth;
+            mStackTags[depth] = result;
+        }
+        return result;
     }
 
     private boolean findCurrentFragment() {
-        mContentFragment = (F) getFragmentManager().findFragmentById(mInitializationParams.getContentFrame());
+        TransactionBackend transactionBackend = getTransactionBackend();
+        int entryCount = transactionBackend.getBackStackEntryCount();
+
+        Fragment topFragment = transactionBackend.findFragmentByTag(getStackTag(entryCount));
+        if ((topFragment != null) && transactionBackend.isDetached(topFragment)) {
+            //fragment was added to the stack without view, its view is created when it becomes current
+            TransactionBackend.Transaction fragmentTransaction = transactionBackend.beginTransaction().attach(topFragment);
+            if (mIsSavedStateActive) {
+                //swap allowing state loss was executed
+                fragmentTransaction.commitAllowingStateLoss();
+            } else {
+                fragmentTransaction.commit();
+            }
+            mContentFragment = (F) topFragment;
+        } else {
+            mContentFragment = (F) transactionBackend.findFragmentById(mInitializationParams.getContentFrame());
+        }
 
         if (mContentFragment != null) {
             mContentFragment.assignFragmentSwapper(this);
         }
 
-        FragmentManager fragmentManager = getFragmentManager();
-        int entryCount = fragmentManager.getBackStackEntryCount();
-        Log.v(TAG, String.format("findCurrentFragment()... entries [%d]", entryCount));
+        mLog.v("findCurrentFragment()... entries [%d]", entryCount);
         return mContentFragment != null;
     }
 
+    private void detachHiddenFragments(int fromDepth, int toDepth) {
+        TransactionBackend transactionBackend = getTransactionBackend();
+        TransactionBackend.Transaction fragmentTransaction = null;
+
+        for (int depth = toDepth; depth >= fromDepth; --depth) {
+            Fragment fragment = transactionBackend.findFragmentByTag(getStackTag(depth));
+            if ((fragment == null) || (fragment == mContentFragment)
+                    || !transactionBackend.isHidden(fragment) || transactionBackend.isDetached(fragment)) {
+                continue;
+            }
+
+            if (fragmentTransaction == null) {
+                fragmentTransaction = transactionBackend.beginTransaction();
+            }
+            //fragment is attached again when it becomes current
+            fragmentTransaction.detach(fragment);
+
+            mLog.v("detachHiddenFragments(): depth[%d]", depth);
+        }
+
+        if (fragmentTransaction != null) {
+            //executed in one of the next loop iterations, out of the current transition
+            if (mIsSavedStateActive) {
+                //state loss only means that detached fragments are restored with views
+                fragmentTransaction.commitAllowingStateLoss();
+            } else {
+                fragmentTransaction.commit();
+            }
+        }
+    }
+
+    private void measureSavedState() {
+        SavedStateProfiler savedStateProfiler = mInitializationParams.getSavedStateProfiler();
+        if ((savedStateProfiler == null) || !savedStateProfiler.isMeasuringEnabled()) {
+            return;
+        }
+
+        TransactionBackend transactionBackend = getTransactionBackend();
+        int entryCount = transactionBackend.getBackStackEntryCount();
+        ArrayList<SavedStateReport.Entry> entries = new ArrayList<SavedStateReport.Entry>(entryCount + 1);
+        int totalSize = 0;
+
+        //state is saved only to be measured, so fragments do not store result data in files
+        savedStateProfiler.setMeasuring(true);
+        try {
+            for (int depth = 0; depth <= entryCount; ++depth) {
+                Fragment fragment = transactionBackend.findFragmentByTag(getStackTag(depth));
+                //fragments managed by custom TransactionBackend are not parceled
+                FragmentManager fragmentManager = fragment != null ? fragment.getFragmentManager() : null;
+                if (fragmentManager == null) {
+                    continue;
+                }
+
+                int size = SavedStateProfiler.measure(fragmentManager.saveFragmentInstanceState(fragment));
+                boolean overWarningSize = savedStateProfiler.isOverEntryWarningSize(size);
+                String name = ((F) fragment).getName();
+                if (overWarningSize) {
+                    mLog.w("measureSavedState(): state of [%s] takes %d bytes", name, size);
+                }
+
+                entries.add(new SavedStateReport.Entry(name, depth, size, overWarningSize));
+                totalSize += size;
+            }
+        } finally {
+            savedStateProfiler.setMeasuring(false);
+        }
+
+        mLog.v("measureSavedState(): entries[%d], totalSize[%d]", entries.size(), totalSize);
+        notifySavedStateMeasured(savedStateProfiler.getListener(), new SavedStateReport(entries, totalSize));
+    }
+
+    private void notifySavedStateMeasured(final OnSavedStateListener listener, final SavedStateReport report) {
+        if (listener == null) {
+            return;
+        }
+
+        mOperationScheduler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onSavedStateMeasured(SingleContainerFragmentSwapper.this, report);
+            }
+        });
+    }
+
     private void obtainResultsFromCurrentFragment() {
         FragmentDescriptor fragment = mContentFragment;
 
         mRequestCode = fragment.getRequestCode();
         mResultCode = fragment.getResultCode();
         mResultBundle = fragment.getResultData();
+        mResultValue = fragment.getResultValue();
 
-        Log.v(TAG, String.format("obtainResultsFromCurrentFragment(): current[%s], requestCode[%s], resultCode[%d], data[%b]",
-                fragment.getName(), mRequestCode, mResultCode, mResultBundle != null));
+        mLog.v("obtainResultsFromCurrentFragment(): current[%s], requestCode[%s], resultCode[%d], data[%b]",
+                fragment.getName(), mRequestCode, mResultCode, (mResultBundle != null) || (mResultValue != null));
+    }
+
+    private void clearResults() {
+        mRequestCode = null;
+        mResultCode = FragmentDescriptor.RESULT_CANCELED;
+        mResultBundle = null;
+        mResultValue = null;
     }
 
     private void sendResultsToCurrentFragmentAndClear() {
         Integer requestCode = mRequestCode;
         int resultCode = mResultCode;
         Bundle resultData = mResultBundle;
+        Object resultValue = mResultValue;
 
-        mRequestCode = null;
-        mResultCode = FragmentDescriptor.RESULT_CANCELED;
-        mResultBundle = null;
+        clearResults();
 
         if (mContentFragment != null) {
-            Log.v(TAG, String.format("sendResultsToCurrentFragmentAndClear(): current[%s], requestCode[%s], resultCode[%d], data[%b]",
-                    mContentFragment.getName(), requestCode, resultCode, resultData != null));
-
-            mContentFragment.onFragmentResult(requestCode, resultCode, resultData);
+            mLog.v("sendResultsToCurrentFragmentAndClear(): current[%s], requestCode[%s], resultCode[%d], data[%b]",
+                    mContentFragment.getName(), requestCode, resultCode, (resultData != null) || (resultValue != null));
+
+            if (resultValue != null) {
+                //value is handed over by reference, it is not parceled while the process is alive
+                mContentFragment.onFragmentResult(requestCode, resultCode, resultValue);
+            } else {
+                mContentFragment.onFragmentResult(requestCode, resultCode, resultData);
+            }
         }
     }
 
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public Logger getLogger() {
+        return mInitializationParams.getLogger();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public SavedStateProfiler getSavedStateProfiler() {
+        return mInitializationParams.getSavedStateProfiler();
+    }
+
     /**
      * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
      */
     @Override
     public boolean isAnimationEnabled() {
-        return mIsAnimationEnabled;
+        return mIsAnimationEnabled && !mIsAnimationSuppressed;
     }
 
     protected void setAnimationEnabled(boolean enabled) {
-        Log.v(TAG, String.format("setAnimationEnabled(): enabled[%b]", enabled));
+        mLog.v("setAnimationEnabled(): enabled[%b]", enabled);
 
         mIsAnimationEnabled = enabled;
     }
 
-    private FragmentManager.OnBackStackChangedListener mOnBackStackChangedListener = new FragmentManager.OnBackStackChangedListener() {
+    private TransactionBackend.OnBackStackChangedListener mOnBackStackChangedListener = new TransactionBackend.OnBackStackChangedListener() {
 
         @Override
         public void onBackStackChanged() {
-            Log.w(TAG, String.format("onBackStackChanged(): popInProgress[%b]", mPopInProgress));
-
-            if (mPopInProgress) {
-                obtainResultsFromCurrentFragment();
-                return;
+            mLog.v("onBackStackChanged(): state[%s]", mState);
+
+            switch (mState) {
+                case IDLE:
+                case TRANSACTION_PENDING:
+                    evaluateStackChange();
+                    break;
+
+                case EXECUTING:
+                case EVALUATING:
+                    //operation evaluates the stack once all its transactions are executed
+                    break;
             }
+        }
+    };
+
+    private void evaluateStackChange() {
+        //swaps are evaluated synchronously, pops when FragmentManager executes them
+        boolean isOperationInProgress = mState == NavigationState.EXECUTING;
+        //operations requested from fragments callbacks can not be executed immediately,
+        //as FragmentManager may be still executing transactions
+        mState = NavigationState.EVALUATING;
+
+        long startTime = System.nanoTime();
+        if (mTransitionMetrics != null) {
+            mTransitionMetrics.markExecuteFinished();
+        }
 
-            int stackCount = getFragmentManager().getBackStackEntryCount();
+        int stackCount = getTransactionBackend().getBackStackEntryCount();
 
-            Log.v(TAG, String.format("onBackStackChanged(): lastStackCount[%d], currentStackCount[%d]", mLastStackCount, stackCount));
+        mLog.v("evaluateStackChange(): lastStackCount[%d], currentStackCount[%d]", mLastStackCount, stackCount);
 
+        try {
             findCurrentFragment();
 
+            if (mIsTransitionInFlight && !hasRunningAnimation(mContentFragment)) {
+                //transaction did not animate the current fragment, so its end will not be reported
+                mIsTransitionInFlight = false;
+            }
+
+            int retainedViewsLimit = mInitializationParams.getRetainedViewsLimit();
+            if ((stackCount > mLastStackCount) && (retainedViewsLimit != InitializationParams.RETAINED_VIEWS_UNLIMITED)) {
+                //fragments closest to the current one keep their views, only the ones that
+                //have just crossed the limit are detached, deeper ones were detached before
+                detachHiddenFragments(Math.max(0, mLastStackCount - retainedViewsLimit), stackCount - 1 - retainedViewsLimit);
+            }
+
             setAnimationEnabled(true);
+            //animations of the transaction are already created, suppression ends with it
+            mIsAnimationSuppressed = false;
 
             if (stackCount < mLastStackCount) {
                 sendResultsToCurrentFragmentAndClear();
             }
 
             notifyResume(mContentFragment);
-            notifyNewFragment(mContentFragment);
+        } finally {
+            mState = isOperationInProgress ? NavigationState.EXECUTING : NavigationState.IDLE;
+        }
+        notifyNewFragment(mContentFragment);
+
+        mLastStackCount = stackCount;
 
-            mLastStackCount = stackCount;
+        if (mTransitionMetrics != null) {
+            mTransitionMetrics.mBackStackChangedTime = System.nanoTime() - startTime;
+            if (!isOperationInProgress) {
+                //asynchronous pop, swaps are finished when the operation returns
+                finishTransitionMetrics();
+            }
         }
-    };
+    }
 
     /**
      * Clears fragments back stack removing all fragments from the hierarchy.
      */
     public void clearStack() {
-        mPopInProgress = true;
+        NavigationState state = mState;
+        mState = NavigationState.EXECUTING;
         setAnimationEnabled(false);
 
-        FragmentManager fragmentManager = getFragmentManager();
-        int entryCount = fragmentManager.getBackStackEntryCount();
-        Log.v(TAG, String.format("clearStack()... entries [%d]", entryCount));
-        for (int i = 0; i < entryCount; ++i) {
+        TransactionBackend transactionBackend = getTransactionBackend();
+        int entryCount = transactionBackend.getBackStackEntryCount();
+        mLog.v("clearStack()... entries [%d]", entryCount);
+        if (entryCount > 0) {
+            if (mContentFragment != null) {
+                obtainResultsFromCurrentFragment();
+            }
+
             try {
-                fragmentManager.popBackStackImmediate();
+                //pop to the root entry in one transaction, fragments in between are not resumed
+                transactionBackend.popBackStackImmediate(0, true);
             } catch (Exception exc) {
-                Log.e(TAG, "clearStack()", exc);
+                mLog.e("clearStack()", exc);
             }
         }
 
         findCurrentFragment();
 
-        Log.v(TAG, "clearStack()... DONE");
+        mLog.v("clearStack()... DONE");
         setAnimationEnabled(true);
-        mPopInProgress = false;
+        mState = state;
     }
 
     private boolean clearToFragmentIfFound(F fragment) {
-        mPopInProgress = true;
-        boolean result = getFragmentManager().popBackStackImmediate(fragment.getName(), FragmentManager.POP_BACK_STACK_INCLUSIVE);
-        mPopInProgress = false;
+        //back stack is popped only if needed, as it is not allowed once the state is saved
+        if (!isInBackStack(fragment.getName())) {
+            mLog.v("clearToFragmentIfFound(): fragmentName[%s] not found", fragment.getName());
+            return false;
+        }
+
+        if (mContentFragment != null) {
+            obtainResultsFromCurrentFragment();
+        }
+
+        boolean result = getTransactionBackend().popBackStackImmediate(fragment.getName(), true);
+        if (!result) {
+            clearResults();
+        }
 
-        Log.v(TAG, String.format("clearToFragmentIfFound(): fragmentName[%s], result[%b]", fragment.getName(), result));
+        mLog.v("clearToFragmentIfFound(): fragmentName[%s], result[%b]", fragment.getName(), result);
 
         return result;
     }
@@ -380,61 +1200,196 @@ public class SingleContainerFragmentSwapper<F extends Fragment & FragmentDescrip
      * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
      */
     @Override
-    public void swapFragment(final SwapParams swapParams, final F fragment) {
-        Runnable operation = new Runnable() {
-            @Override
-            public void run() {
-                Log.v(TAG, "swapFragment()");
+    public void swapFragment(SwapParams swapParams, F fragment) {
+        performOperationIfAllowed(mOperationPool.swap(swapParams, fragment));
+    }
 
-                fragment.assignFragmentSwapper(SingleContainerFragmentSwapper.this);
+    /**
+     * Checks if the operation is a duplicate of the previous swap and drops it if so.
+     *
+     * Method is called on the OperationScheduler thread, when operations are run in request order.
+     * Operation postponed while holding Activity state is saved is checked only once.
+     *
+     * @param operation Operation to be checked.
+     * @return True if the operation was dropped, false otherwise.
+     */
+    private boolean isDuplicateSwap(Operation<F> operation) {
+        long window = mInitializationParams.getDuplicateSwapWindow();
+        if ((window == InitializationParams.DUPLICATE_SWAP_WINDOW_DISABLED) || operation.mDuplicateChecked) {
+            return false;
+        }
+        operation.mDuplicateChecked = true;
 
-                notifyPause(mContentFragment);
+        if (operation.mType != OperationType.SWAP) {
+            //any other operation ends the sequence of duplicates
+            mLastSwapName = null;
+            return false;
+        }
 
-                mPopInProgress = true;
+        String name = operation.mFragment.getName();
+        Integer requestCode = operation.mSwapParams.getRequestCode();
 
-                boolean popped = false;
+        boolean result = name.equals(mLastSwapName)
+                && ((requestCode == null) ? (mLastSwapRequestCode == null) : requestCode.equals(mLastSwapRequestCode))
+                && ((operation.mRequestTime - mLastSwapTime < window * 1000000L)
+                    || (mPendingOperations.size() > 0) || isTransitionInFlight());
 
-                if (swapParams.isMainContext()) {
-                    clearStack();
-                    setAnimationEnabled(swapParams.isAnimate());
-                } else {
-                    setAnimationEnabled(swapParams.isAnimate());
+        if (!result) {
+            mLastSwapName = name;
+            mLastSwapRequestCode = requestCode;
+            mLastSwapTime = operation.mRequestTime;
+            return false;
+        }
+
+        ++mSuppressedOperationsCount;
+        mLog.v("isDuplicateSwap(): duplicate of [%s] suppressed", name);
+
+        FragmentPool<F> fragmentPool = mInitializationParams.getFragmentPool();
+        if (fragmentPool != null) {
+            fragmentPool.release(operation.mFragment);
+        }
+        mOperationPool.recycle(operation);
+        return true;
+    }
+
+    private void performSwap(SwapParams swapParams, F fragment) {
+        mLog.v("swapFragment()");
+
+        fragment.assignFragmentSwapper(this);
+        onFragmentAdded(fragment);
+
+        notifyPause(mContentFragment);
+
+        boolean popped = false;
+
+        if (swapParams.isMainContext()) {
+            clearStack();
+            setAnimationEnabled(swapParams.isAnimate());
+        } else {
+            setAnimationEnabled(swapParams.isAnimate());
+
+            popped = clearToFragmentIfFound(fragment);
+        }
 
-                    popped = clearToFragmentIfFound(fragment);
+        TransactionBackend.Transaction fragmentTransaction = getTransactionBackend().beginTransaction();
+        if (popped) {
+            fragmentTransaction.setCustomAnimations(0, 0, swapParams.getPopEnterAnimResId(), swapParams.getPopExitAnimResId());
+        } else {
+            fragmentTransaction.setCustomAnimations(swapParams.getEnterAnimResId(), swapParams.getExitAnimResId(), swapParams.getPopEnterAnimResId(), swapParams.getPopExitAnimResId());
+
+            if (mContentFragment != null) {
+                if (swapParams.getRemoveOld()) {
+                    fragmentTransaction.remove(mContentFragment);
+                } else {
+                    fragmentTransaction.hide(mContentFragment);
                 }
+            }
+        }
+
+        fragment.setRequestCode(swapParams.getRequestCode());
+
+        int depth = getTransactionBackend().getBackStackEntryCount() + (swapParams.isAddToBackStack() ? 1 : 0);
+        fragmentTransaction.add(mInitializationParams.getContentFrame(), fragment, getStackTag(depth));
+        if (swapParams.isAddToBackStack()) {
+            fragmentTransaction.addToBackStack(fragment.getName());
+        }
+
+        CommitStrategy commitStrategy = getCommitStrategy(swapParams);
+
+        onTransitionStarted();
+        commit(fragmentTransaction, commitStrategy);
+
+        if ((commitStrategy == CommitStrategy.ASYNC) && swapParams.isAddToBackStack()) {
+            //evaluated when FragmentManager reports back stack change
+            mState = NavigationState.TRANSACTION_PENDING;
+            if (mTransitionMetrics != null) {
+                mTransitionMetrics.markExecuteStarted();
+            }
+            return;
+        }
 
-                FragmentTransaction fragmentTransaction = getFragmentManager().beginTransaction();
-                if (popped) {
-                    fragmentTransaction.setCustomAnimations(0, 0, swapParams.getPopEnterAnimResId(), swapParams.getPopExitAnimResId());
+        executePendingTransactions();
+
+        //evaluated also if back stack is not changed, to update current fragment and notify OnFragmentSwapperListener
+        evaluateStackChange();
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentSwapper
+     */
+    @Override
+    public void swapFragments(SwapParams swapParams, List<F> fragments) {
+        if ((fragments == null) || fragments.isEmpty()) {
+            throw new IllegalArgumentException("At least one fragment is mandatory");
+        }
+
+        performOperationIfAllowed(mOperationPool.swapMultiple(swapParams, fragments));
+    }
+
+    private void onFragmentAdded(F fragment) {
+        FragmentPool<F> fragmentPool = mInitializationParams.getFragmentPool();
+        if (fragmentPool != null) {
+            //fragment is pooled again when it is finally removed
+            fragmentPool.onFragmentAdded(fragment);
+        }
+    }
+
+    private void performSwapMultiple(SwapParams swapParams, List<F> fragments) {
+        mLog.v("swapFragments(): fragments[%d]", fragments.size());
+
+        notifyPause(mContentFragment);
+
+        if (swapParams.isMainContext()) {
+            clearStack();
+        }
+        setAnimationEnabled(swapParams.isAnimate());
+
+        TransactionBackend transactionBackend = getTransactionBackend();
+        int contentFrame = mInitializationParams.getContentFrame();
+        int depth = transactionBackend.getBackStackEntryCount();
+        int lastIndex = fragments.size() - 1;
+
+        //stack changes are evaluated once, after all transactions are executed,
+        //so the transactions are never executed asynchronously
+        CommitStrategy commitStrategy = getCommitStrategy(swapParams);
+        onTransitionStarted();
+
+        for (int i = 0; i <= lastIndex; ++i) {
+            F fragment = fragments.get(i);
+            fragment.assignFragmentSwapper(this);
+            onFragmentAdded(fragment);
+
+            TransactionBackend.Transaction fragmentTransaction = transactionBackend.beginTransaction();
+            if ((i == 0) && (mContentFragment != null)) {
+                if (swapParams.getRemoveOld()) {
+                    fragmentTransaction.remove(mContentFragment);
                 } else {
-                    fragmentTransaction.setCustomAnimations(swapParams.getEnterAnimResId(), swapParams.getExitAnimResId(), swapParams.getPopEnterAnimResId(), swapParams.getPopExitAnimResId());
-
-                    if (mContentFragment != null) {
-                        if (swapParams.getRemoveOld()) {
-                            fragmentTransaction.remove(mContentFragment);
-                        } else {
-                            fragmentTransaction.hide(mContentFragment);
-                        }
-                    }
+                    fragmentTransaction.hide(mContentFragment);
                 }
+            }
 
+            if (i < lastIndex) {
+                //fragments below the top one are added without views
+                fragmentTransaction.setCustomAnimations(0, 0, swapParams.getPopEnterAnimResId(), swapParams.getPopExitAnimResId());
+                fragmentTransaction.add(contentFrame, fragment, getStackTag(++depth));
+                fragmentTransaction.detach(fragment);
+                fragmentTransaction.addToBackStack(fragment.getName());
+            } else {
                 fragment.setRequestCode(swapParams.getRequestCode());
 
-                fragmentTransaction.add(mInitializationParams.getContentFrame(), fragment);
+                fragmentTransaction.setCustomAnimations(swapParams.getEnterAnimResId(), swapParams.getExitAnimResId(), swapParams.getPopEnterAnimResId(), swapParams.getPopExitAnimResId());
                 if (swapParams.isAddToBackStack()) {
-                    fragmentTransaction.addToBackStack(fragment.getName());
+                    ++depth;
                 }
-
-                fragmentTransaction.commit();
-                getFragmentManager().executePendingTransactions();
-
-                if (!swapParams.isAddToBackStack()) {
-                    //force to update current fragment and notify OnFragmentSwapperListener
-                    mOnBackStackChangedListener.onBackStackChanged();
+                fragmentTransaction.add(contentFrame, fragment, getStackTag(depth));
+                if (swapParams.isAddToBackStack()) {
+                    fragmentTransaction.addToBackStack(fragment.getName());
                 }
             }
-        };
+            commit(fragmentTransaction, commitStrategy);
+        }
+        executePendingTransactions();
 
-        performOperationIfAllowed(operation);
+        evaluateStackChange();
     }
 }
@@ -0,0 +1,49 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import pl.openrnd.managers.R;
+
+/**
+ * Fragment hosting a single stack of MultiContainerFragmentSwapper.
+ *
+ * Fragments of the stack are managed by the child FragmentManager of this fragment
+ * and are placed in the container with fragment_swapper_stack_container id.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.MultiContainerFragmentSwapper
+ */
+public class StackHostFragment extends Fragment {
+
+    /**
+     * @see android.support.v4.app.Fragment
+     */
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        FrameLayout stackContainer = new FrameLayout(inflater.getContext());
+        stackContainer.setId(R.id.fragment_swapper_stack_container);
+        return stackContainer;
+    }
+}
@@ -33,6 +33,7 @@ public class SwapParams {
     private Integer mPopExitAnimResId;
     private boolean mIsMainContext;
     private boolean mRemoveOld;
+    private CommitStrategy mCommitStrategy;
 
     /**
      * Gets animation resource id.
@@ -131,6 +132,15 @@ public class SwapParams {
         return mRemoveOld;
     }
 
+    /**
+     * Gets strategy of committing the fragments transaction.
+     *
+     * @return CommitStrategy value or null if strategy of the FragmentSwapper has to be used.
+     */
+    public CommitStrategy getCommitStrategy() {
+        return mCommitStrategy;
+    }
+
     /**
      * SwapParams class builder
      */
@@ -144,6 +154,7 @@ public class SwapParams {
         mPopExitAnimResId = builder.mPopExitAnimResId;
         mIsMainContext = builder.mIsMainContext;
         mRemoveOld = builder.mRemoveOld;
+        mCommitStrategy = builder.mCommitStrategy;
     }
 
     /**
@@ -159,6 +170,7 @@ public class SwapParams {
         private Integer mPopExitAnimResId;
         private boolean mIsMainContext;
         private boolean mRemoveOld;
+        private CommitStrategy mCommitStrategy;
 
         /**
          * Class constructor
@@ -177,6 +189,7 @@ public class SwapParams {
             mAddToBackStack = true;
             mIsMainContext = false;
             mRemoveOld = false;
+            mCommitStrategy = null;
         }
 
         /**
@@ -293,6 +306,19 @@ public class SwapParams {
             return this;
         }
 
+        /**
+         * Sets strategy of committing the fragments transaction.
+         *
+         * By default strategy provided in InitializationParams is used.
+         *
+         * @param commitStrategy CommitStrategy value.
+         * @return Builder object.
+         */
+        public Builder commitStrategy(CommitStrategy commitStrategy) {
+            mCommitStrategy = commitStrategy;
+            return this;
+        }
+
         /**
          * Builds SwapParams object with current builder parameters.
          *
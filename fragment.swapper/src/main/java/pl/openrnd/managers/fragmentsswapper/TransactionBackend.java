@@ -0,0 +1,239 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.support.v4.app.Fragment;
+
+/**
+ * Interface defining fragments transactions backend used by FragmentSwapper.
+ *
+ * Default implementation wraps FragmentManager, other implementations allow to run
+ * FragmentSwapper logic without Android fragments framework (e.g. in JVM tests).
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.FragmentManagerTransactionBackend
+ * @see pl.openrnd.managers.fragmentsswapper.InMemoryTransactionBackend
+ */
+public interface TransactionBackend {
+
+    /**
+     * Interface used for getting notification about back stack changes.
+     */
+    interface OnBackStackChangedListener {
+
+        /**
+         * Method called when back stack entries were added or removed.
+         */
+        void onBackStackChanged();
+    }
+
+    /**
+     * Interface defining single fragments transaction.
+     */
+    interface Transaction {
+
+        /**
+         * Sets animation resources ids.
+         *
+         * @see android.support.v4.app.FragmentTransaction
+         *
+         * @return Transaction object.
+         */
+        Transaction setCustomAnimations(int enter, int exit, int popEnter, int popExit);
+
+        /**
+         * Adds fragment to the container.
+         *
+         * @param containerId Container Id.
+         * @param fragment Fragment to be added.
+         * @param tag Fragment tag or null.
+         * @return Transaction object.
+         */
+        Transaction add(int containerId, Fragment fragment, String tag);
+
+        /**
+         * Removes fragment.
+         *
+         * @param fragment Fragment to be removed.
+         * @return Transaction object.
+         */
+        Transaction remove(Fragment fragment);
+
+        /**
+         * Hides fragment.
+         *
+         * @param fragment Fragment to be hidden.
+         * @return Transaction object.
+         */
+        Transaction hide(Fragment fragment);
+
+        /**
+         * Shows previously hidden fragment.
+         *
+         * @param fragment Fragment to be shown.
+         * @return Transaction object.
+         */
+        Transaction show(Fragment fragment);
+
+        /**
+         * Detaches fragment. Fragment view hierarchy is destroyed but its state is kept.
+         *
+         * @param fragment Fragment to be detached.
+         * @return Transaction object.
+         */
+        Transaction detach(Fragment fragment);
+
+        /**
+         * Attaches previously detached fragment. Fragment view hierarchy is recreated.
+         *
+         * @param fragment Fragment to be attached.
+         * @return Transaction object.
+         */
+        Transaction attach(Fragment fragment);
+
+        /**
+         * Adds transaction to back stack.
+         *
+         * @param name Back stack entry name.
+         * @return Transaction object.
+         */
+        Transaction addToBackStack(String name);
+
+        /**
+         * Schedules transaction commit.
+         */
+        void commit();
+
+        /**
+         * Schedules transaction commit that is allowed after holding Activity state was saved.
+         *
+         * Transaction is not reflected in the saved state.
+         */
+        void commitAllowingStateLoss();
+    }
+
+    /**
+     * Adds back stack changes listener.
+     *
+     * @param listener OnBackStackChangedListener object.
+     */
+    void addOnBackStackChangedListener(OnBackStackChangedListener listener);
+
+    /**
+     * Gets number of back stack entries.
+     *
+     * @return Number of back stack entries.
+     */
+    int getBackStackEntryCount();
+
+    /**
+     * Gets name of the back stack entry.
+     *
+     * @param entryIndex Back stack entry position (0 is the bottom entry).
+     * @return Back stack entry name or null if not provided.
+     */
+    String getBackStackEntryName(int entryIndex);
+
+    /**
+     * Finds fragment that was most recently added to the container.
+     *
+     * @param containerId Container Id.
+     * @return Fragment or null if not found.
+     */
+    Fragment findFragmentById(int containerId);
+
+    /**
+     * Finds fragment with provided tag. Detached fragments are searched as well.
+     *
+     * @param tag Fragment tag.
+     * @return Fragment or null if not found.
+     */
+    Fragment findFragmentByTag(String tag);
+
+    /**
+     * Gets information if fragment is detached.
+     *
+     * @param fragment Fragment object.
+     * @return True if fragment is detached, false otherwise.
+     */
+    boolean isDetached(Fragment fragment);
+
+    /**
+     * Gets information if fragment is hidden.
+     *
+     * @param fragment Fragment object.
+     * @return True if fragment is hidden, false otherwise.
+     */
+    boolean isHidden(Fragment fragment);
+
+    /**
+     * Gets TransactionBackend managing fragments nested in provided fragment.
+     *
+     * @param fragment Fragment added with this backend.
+     * @return TransactionBackend object.
+     */
+    TransactionBackend getChildTransactionBackend(Fragment fragment);
+
+    /**
+     * Starts new transaction.
+     *
+     * Transaction is committed before the next one is started, so implementations may reuse
+     * the returned object.
+     *
+     * @return Transaction object.
+     */
+    Transaction beginTransaction();
+
+    /**
+     * Executes all committed transactions.
+     */
+    void executePendingTransactions();
+
+    /**
+     * Schedules popping of back stack entries up to the entry at provided position.
+     *
+     * All entries are popped in a single operation so the fragments in between are not resumed.
+     *
+     * @param entryIndex Back stack entry position (0 is the bottom entry).
+     * @param inclusive True if the entry at provided position has to be popped as well, false otherwise.
+     */
+    void popBackStack(int entryIndex, boolean inclusive);
+
+    /**
+     * Pops back stack entries immediately up to the last entry with provided name.
+     *
+     * Without name only the top entry is popped, or all entries if inclusive.
+     * Inclusive pop removes also consecutive entries with the same name below the named one.
+     *
+     * @param name Back stack entry name or null.
+     * @param inclusive True if the named entry has to be popped as well, false otherwise.
+     * @return True if any entry was popped, false otherwise.
+     */
+    boolean popBackStackImmediate(String name, boolean inclusive);
+
+    /**
+     * Pops back stack entries immediately up to the entry at provided position.
+     *
+     * All entries are popped in a single operation so the fragments in between are not resumed.
+     *
+     * @param entryIndex Back stack entry position (0 is the bottom entry).
+     * @param inclusive True if the entry at provided position has to be popped as well, false otherwise.
+     * @return True if any entry was popped, false otherwise.
+     */
+    boolean popBackStackImmediate(int entryIndex, boolean inclusive);
+}
@@ -0,0 +1,43 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * Policies of handling a transition that is still animating when the next operation is executed.
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.InitializationParams.Builder#transitionInterruptPolicy
+ */
+public enum TransitionInterruptPolicy {
+
+    /**
+     * Running transition is not interrupted, so both transitions animate at the same time.
+     */
+    NONE,
+
+    /**
+     * Running transition animations jump to their end, so they are drawn in the final state in the next
+     * frame and end the regular way, and the next transition is animated.
+     */
+    FAST_FORWARD,
+
+    /**
+     * Running transition animations are stopped immediately and the next transition is executed without animation.
+     */
+    CANCEL
+}
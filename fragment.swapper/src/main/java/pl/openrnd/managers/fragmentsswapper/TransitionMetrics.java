@@ -0,0 +1,194 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * Timing of a single FragmentSwapper transition.
+ *
+ * Transition is measured in phases, all durations are in nanoseconds:
+ * <ul>
+ *     <li>queue wait - from the operation request to its execution, excluding paused time,</li>
+ *     <li>paused - time the operation was postponed while holding Activity state was saved,</li>
+ *     <li>commit - time spent committing fragments transactions,</li>
+ *     <li>execute - time of transactions execution; for pops it also includes waiting
+ *     for the FragmentManager to execute the asynchronous pop,</li>
+ *     <li>back stack changed - time of handling back stack change by FragmentSwapper,
+ *     including fragment result and resume callbacks,</li>
+ *     <li>first frame - from the end of the transition to the first frame drawing pass
+ *     of the new fragment view.</li>
+ * </ul>
+ *
+ * @see pl.openrnd.managers.fragmentsswapper.OnTransitionMetricsListener
+ */
+public class TransitionMetrics {
+
+    /**
+     * Value of phase duration that was not measured.
+     */
+    public static final long NOT_MEASURED = -1;
+
+    private final OperationType mOperationType;
+    private final SwapParams mSwapParams;
+    private final PopParams mPopParams;
+
+    String mName;
+    long mQueueWaitTime;
+    long mPausedTime;
+    long mCommitTime;
+    long mExecuteTime;
+    long mBackStackChangedTime = NOT_MEASURED;
+    long mFirstFrameTime = NOT_MEASURED;
+
+    private long mExecuteStartTime;
+
+    TransitionMetrics(OperationType operationType, SwapParams swapParams, PopParams popParams) {
+        mOperationType = operationType;
+        mSwapParams = swapParams;
+        mPopParams = popParams;
+    }
+
+    void markExecuteStarted() {
+        mExecuteStartTime = System.nanoTime();
+    }
+
+    void markExecuteFinished() {
+        if (isExecuting()) {
+            mExecuteTime += System.nanoTime() - mExecuteStartTime;
+            mExecuteStartTime = 0;
+        }
+    }
+
+    boolean isExecuting() {
+        return mExecuteStartTime != 0;
+    }
+
+    /**
+     * Gets name of the fragment that became current as a result of the transition.
+     *
+     * @return Fragment name or null if there is no current fragment.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Gets type of the measured operation.
+     *
+     * @return Operation type.
+     */
+    public OperationType getOperationType() {
+        return mOperationType;
+    }
+
+    /**
+     * Gets parameters of the measured swap operation.
+     *
+     * @return SwapParams object or null for pop operations.
+     */
+    public SwapParams getSwapParams() {
+        return mSwapParams;
+    }
+
+    /**
+     * Gets parameters of the measured pop operation.
+     *
+     * @return PopParams object or null for swap operations.
+     */
+    public PopParams getPopParams() {
+        return mPopParams;
+    }
+
+    /**
+     * Gets time the operation waited for the execution, excluding paused time.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getQueueWaitTime() {
+        return mQueueWaitTime;
+    }
+
+    /**
+     * Gets time the operation was postponed while holding Activity state was saved.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getPausedTime() {
+        return mPausedTime;
+    }
+
+    /**
+     * Gets time spent committing fragments transactions.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getCommitTime() {
+        return mCommitTime;
+    }
+
+    /**
+     * Gets time of fragments transactions execution.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getExecuteTime() {
+        return mExecuteTime;
+    }
+
+    /**
+     * Gets time of back stack change handling.
+     *
+     * @return Duration in nanoseconds or NOT_MEASURED.
+     */
+    public long getBackStackChangedTime() {
+        return mBackStackChangedTime;
+    }
+
+    /**
+     * Gets time from the end of the transition to the first frame of the new fragment view.
+     *
+     * @return Duration in nanoseconds or NOT_MEASURED if the fragment has no view.
+     */
+    public long getFirstFrameTime() {
+        return mFirstFrameTime;
+    }
+
+    /**
+     * Gets total duration of the transition, from the operation request to the first frame.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getTotalTime() {
+        return mQueueWaitTime + mPausedTime + mCommitTime + mExecuteTime
+                + Math.max(mBackStackChangedTime, 0) + Math.max(mFirstFrameTime, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "TransitionMetrics{" +
+                "name=" + mName +
+                ", operationType=" + mOperationType +
+                ", queueWait=" + mQueueWaitTime +
+                ", paused=" + mPausedTime +
+                ", commit=" + mCommitTime +
+                ", execute=" + mExecuteTime +
+                ", backStackChanged=" + mBackStackChangedTime +
+                ", firstFrame=" + mFirstFrameTime +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Reads bytes allocated by the current thread. Tests using it are skipped on VMs which
+ * do not provide per thread allocation accounting.
+ */
+class AllocationCounter {
+
+    private final com.sun.management.ThreadMXBean mThreadMXBean;
+    private final long mThreadId;
+
+    AllocationCounter() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+
+        mThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(mThreadMXBean.isThreadAllocatedMemorySupported());
+        mThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        mThreadId = Thread.currentThread().getId();
+    }
+
+    long getAllocatedBytes() {
+        return mThreadMXBean.getThreadAllocatedBytes(mThreadId);
+    }
+}
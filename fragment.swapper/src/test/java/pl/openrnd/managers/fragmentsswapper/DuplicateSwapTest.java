@@ -0,0 +1,96 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DuplicateSwapTest {
+
+    private static final int CONTENT_FRAME = 1;
+    private static final long DUPLICATE_SWAP_WINDOW = 60000;
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private QueueOperationScheduler mOperationScheduler;
+    private SingleContainerFragmentSwapper<TestFragment> mFragmentSwapper;
+
+    @Before
+    public void setUp() {
+        mTransactionBackend = new InMemoryTransactionBackend();
+        mOperationScheduler = new QueueOperationScheduler();
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(mOperationScheduler)
+                .duplicateSwapWindow(DUPLICATE_SWAP_WINDOW)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(new SilentLogger())
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<TestFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+    }
+
+    @Test
+    public void duplicateSwapIsSuppressed() {
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), new TestFragment("A"));
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), new TestFragment("A"));
+        runAll();
+
+        assertEquals(1, mFragmentSwapper.getSuppressedOperationsCount());
+        assertEquals(1, mTransactionBackend.getBackStackEntryCount());
+    }
+
+    @Test
+    public void swapWithOtherRequestCodeIsNotSuppressed() {
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), new TestFragment("A"));
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().requestCode(1).build(), new TestFragment("A"));
+        runAll();
+
+        assertEquals(0, mFragmentSwapper.getSuppressedOperationsCount());
+    }
+
+    @Test
+    public void popBetweenSwapsEndsDuplicates() {
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), new TestFragment("A"));
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), new TestFragment("B"));
+        runAll();
+
+        //requests are checked in order on the scheduler thread, so the pop is seen before the second swap
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), new TestFragment("C"));
+        mFragmentSwapper.popFragment(new PopParams.Builder().build());
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), new TestFragment("C"));
+        runAll();
+
+        assertEquals(0, mFragmentSwapper.getSuppressedOperationsCount());
+        assertEquals(3, mTransactionBackend.getBackStackEntryCount());
+    }
+
+    private void runAll() {
+        mOperationScheduler.runAll();
+        mTransactionBackend.executePendingTransactions();
+    }
+}
@@ -0,0 +1,135 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class FragmentPoolTest {
+
+    private FragmentPool<TestFragment> mFragmentPool;
+
+    @Before
+    public void setUp() {
+        mFragmentPool = new FragmentPool<TestFragment>(2);
+    }
+
+    @Test
+    public void releasedFragmentIsReused() {
+        TestFragment fragment = mFragmentPool.obtain(TestFragment.class, null);
+        mFragmentPool.release(fragment);
+
+        assertEquals(1, mFragmentPool.size());
+        assertSame(fragment, mFragmentPool.obtain(TestFragment.class, null));
+        assertEquals(1, mFragmentPool.getReusedCount());
+        assertEquals(1, mFragmentPool.getCreatedCount());
+    }
+
+    @Test
+    public void fragmentIsReusedOnlyForTheSameClass() {
+        TestFragment fragment = mFragmentPool.obtain(TestFragment.class, null);
+        mFragmentPool.release(fragment);
+
+        assertNotSame(fragment, mFragmentPool.obtain(TestFragment.OtherFragment.class, null));
+        assertEquals(1, mFragmentPool.size());
+    }
+
+    @Test
+    public void addedFragmentIsNotReturnedToPool() {
+        TestFragment fragment = mFragmentPool.obtain(TestFragment.class, null);
+        mFragmentPool.onFragmentAdded(fragment);
+        mFragmentPool.release(fragment);
+
+        assertEquals(0, mFragmentPool.size());
+        assertNotSame(fragment, mFragmentPool.obtain(TestFragment.class, null));
+    }
+
+    @Test
+    public void removedFragmentIsReused() {
+        TestFragment fragment = mFragmentPool.obtain(TestFragment.class, null);
+        mFragmentPool.onFragmentAdded(fragment);
+        mFragmentPool.onFragmentRemoved(fragment);
+
+        assertEquals(1, mFragmentPool.size());
+        assertSame(fragment, mFragmentPool.obtain(TestFragment.class, null));
+        assertEquals(1, mFragmentPool.getReusedCount());
+    }
+
+    @Test
+    public void removedFragmentNotObtainedFromPoolIsIgnored() {
+        mFragmentPool.onFragmentRemoved(new TestFragment());
+
+        assertEquals(0, mFragmentPool.size());
+    }
+
+    @Test
+    public void uiHiddenKeepsPooledFragments() {
+        mFragmentPool.release(mFragmentPool.obtain(TestFragment.class, null));
+        mFragmentPool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        assertEquals(1, mFragmentPool.size());
+    }
+
+    @Test
+    public void runningLowReleasesPooledFragments() {
+        mFragmentPool.release(mFragmentPool.obtain(TestFragment.class, null));
+        mFragmentPool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+        assertEquals(0, mFragmentPool.size());
+    }
+
+    @Test
+    public void fragmentNotObtainedFromPoolIsIgnored() {
+        mFragmentPool.release(new TestFragment());
+
+        assertEquals(0, mFragmentPool.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedFragmentIsEvicted() {
+        TestFragment first = mFragmentPool.obtain(TestFragment.class, null);
+        TestFragment second = mFragmentPool.obtain(TestFragment.OtherFragment.class, null);
+        TestFragment third = mFragmentPool.obtain(TestFragment.ThirdFragment.class, null);
+
+        mFragmentPool.release(first);
+        mFragmentPool.release(second);
+        mFragmentPool.release(third);
+
+        assertEquals(2, mFragmentPool.size());
+        assertNotSame(first, mFragmentPool.obtain(TestFragment.class, null));
+        assertSame(second, mFragmentPool.obtain(TestFragment.OtherFragment.class, null));
+        assertSame(third, mFragmentPool.obtain(TestFragment.ThirdFragment.class, null));
+    }
+
+    @Test
+    public void clearRemovesAllFragments() {
+        mFragmentPool.release(mFragmentPool.obtain(TestFragment.class, null));
+        mFragmentPool.release(mFragmentPool.obtain(TestFragment.OtherFragment.class, null));
+
+        mFragmentPool.clear();
+
+        assertEquals(0, mFragmentPool.size());
+    }
+}
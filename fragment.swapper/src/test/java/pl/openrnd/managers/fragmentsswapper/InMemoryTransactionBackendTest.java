@@ -0,0 +1,165 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryTransactionBackendTest {
+
+    private static final int CONTENT_FRAME = 1;
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private int mBackStackChangesCount;
+
+    @Before
+    public void setUp() {
+        mTransactionBackend = new InMemoryTransactionBackend();
+        mTransactionBackend.addOnBackStackChangedListener(new TransactionBackend.OnBackStackChangedListener() {
+            @Override
+            public void onBackStackChanged() {
+                ++mBackStackChangesCount;
+            }
+        });
+    }
+
+    @Test
+    public void popWithoutNamePopsTopEntry() {
+        push("A", "B", "C");
+
+        assertTrue(mTransactionBackend.popBackStackImmediate(null, false));
+
+        assertNames("A", "B");
+    }
+
+    @Test
+    public void inclusivePopWithoutNamePopsAllEntries() {
+        push("A", "B", "C");
+
+        assertTrue(mTransactionBackend.popBackStackImmediate(null, true));
+
+        assertNames();
+    }
+
+    @Test
+    public void popOfEmptyStackReturnsFalse() {
+        assertFalse(mTransactionBackend.popBackStackImmediate(null, false));
+        assertFalse(mTransactionBackend.popBackStackImmediate(0, true));
+        assertEquals(0, mBackStackChangesCount);
+    }
+
+    @Test
+    public void popToNamePopsEntriesAboveIt() {
+        push("A", "B", "C");
+
+        assertTrue(mTransactionBackend.popBackStackImmediate("A", false));
+
+        assertNames("A");
+    }
+
+    @Test
+    public void popToTopEntryNameReturnsFalse() {
+        push("A", "B");
+
+        assertFalse(mTransactionBackend.popBackStackImmediate("B", false));
+
+        assertNames("A", "B");
+    }
+
+    @Test
+    public void inclusivePopToNamePopsConsecutiveEntriesWithTheName() {
+        push("A", "B", "B", "C");
+
+        assertTrue(mTransactionBackend.popBackStackImmediate("B", true));
+
+        assertNames("A");
+    }
+
+    @Test
+    public void popToUnknownNameReturnsFalse() {
+        push("A");
+
+        assertFalse(mTransactionBackend.popBackStackImmediate("B", true));
+
+        assertNames("A");
+    }
+
+    @Test
+    public void popToIndexPopsInOneChange() {
+        push("A", "B", "C");
+        mBackStackChangesCount = 0;
+
+        assertTrue(mTransactionBackend.popBackStackImmediate(1, false));
+
+        assertNames("A", "B");
+        assertEquals(1, mBackStackChangesCount);
+    }
+
+    @Test
+    public void scheduledPopIsExecutedWithPendingTransactions() {
+        push("A", "B", "C");
+
+        mTransactionBackend.popBackStack(1, true);
+        assertEquals(3, mTransactionBackend.getBackStackEntryCount());
+
+        mTransactionBackend.executePendingTransactions();
+        assertNames("A");
+    }
+
+    @Test
+    public void popRestoresRemovedAndHiddenFragments() {
+        TestFragment first = new TestFragment("A");
+        TestFragment second = new TestFragment("B");
+        mTransactionBackend.beginTransaction().add(CONTENT_FRAME, first, "first").commit();
+
+        mTransactionBackend.beginTransaction().hide(first).add(CONTENT_FRAME, second, "second").addToBackStack("B").commit();
+        mTransactionBackend.executePendingTransactions();
+        assertTrue(mTransactionBackend.isHidden(first));
+        assertSame(second, mTransactionBackend.findFragmentById(CONTENT_FRAME));
+
+        assertTrue(mTransactionBackend.popBackStackImmediate(null, false));
+
+        assertFalse(mTransactionBackend.isHidden(first));
+        assertSame(first, mTransactionBackend.findFragmentById(CONTENT_FRAME));
+        assertNull(mTransactionBackend.findFragmentByTag("second"));
+    }
+
+    private void push(String... names) {
+        for (String name : names) {
+            mTransactionBackend.beginTransaction()
+                    .add(CONTENT_FRAME, new TestFragment(name), name)
+                    .addToBackStack(name)
+                    .commit();
+        }
+        mTransactionBackend.executePendingTransactions();
+    }
+
+    private void assertNames(String... names) {
+        assertEquals(names.length, mTransactionBackend.getBackStackEntryCount());
+        for (int i = 0; i < names.length; ++i) {
+            assertEquals(names[i], mTransactionBackend.getBackStackEntryName(i));
+        }
+    }
+}
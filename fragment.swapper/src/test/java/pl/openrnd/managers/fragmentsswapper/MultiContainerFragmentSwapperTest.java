@@ -0,0 +1,255 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.support.v4.app.Fragment;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MultiContainerFragmentSwapperTest {
+
+    private static final int CONTENT_FRAME = 1;
+    private static final int RETAINED_STACKS_LIMIT = 2;
+
+    private static final String HOME = "home";
+    private static final String SEARCH = "search";
+    private static final String PROFILE = "profile";
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private QueueOperationScheduler mOperationScheduler;
+    private MultiContainerFragmentSwapper<TestFragment> mFragmentSwapper;
+
+    private ArrayList<Fragment> mEnteredFragments;
+    private int mCloseRequestedCount;
+
+    @Before
+    public void setUp() {
+        mTransactionBackend = new InMemoryTransactionBackend();
+        mOperationScheduler = new QueueOperationScheduler();
+        mEnteredFragments = new ArrayList<Fragment>();
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(mOperationScheduler)
+                .retainedStacksLimit(RETAINED_STACKS_LIMIT)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(new SilentLogger())
+                .build();
+
+        mFragmentSwapper = new MultiContainerFragmentSwapper<TestFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+        mFragmentSwapper.setOnFragmentSwapperListener(new OnFragmentSwapperListener() {
+            @Override
+            public void onFragmentEntered(FragmentSwapper fragmentSwapper, Fragment fragment) {
+                mEnteredFragments.add(fragment);
+            }
+
+            @Override
+            public void onCloseRequested(FragmentSwapper fragmentSwapper) {
+                ++mCloseRequestedCount;
+            }
+        });
+    }
+
+    @Test
+    public void stacksKeepTheirFragmentsWhenSwitched() {
+        TestFragment first = new TestFragment("A");
+        TestFragment second = new TestFragment("B");
+        TestFragment other = new TestFragment("C");
+
+        assertTrue(mFragmentSwapper.switchToStack(HOME));
+        swap(first);
+        swap(second);
+
+        assertTrue(mFragmentSwapper.switchToStack(SEARCH));
+        swap(other);
+
+        assertFalse(mFragmentSwapper.switchToStack(HOME));
+        runAll();
+
+        assertEquals(HOME, mFragmentSwapper.getCurrentStackName());
+        assertSame(second, mFragmentSwapper.getCurrentFragment());
+        assertEquals(2, getStackBackend(HOME).getBackStackEntryCount());
+        assertEquals(1, getStackBackend(SEARCH).getBackStackEntryCount());
+        assertTrue(mTransactionBackend.isHidden(getStackHost(SEARCH)));
+        assertFalse(mTransactionBackend.isHidden(getStackHost(HOME)));
+    }
+
+    @Test
+    public void switchedStackFragmentIsNotifiedThroughScheduler() {
+        TestFragment first = new TestFragment("A");
+        TestFragment other = new TestFragment("C");
+
+        mFragmentSwapper.switchToStack(HOME);
+        swap(first);
+        mFragmentSwapper.switchToStack(SEARCH);
+        swap(other);
+        mEnteredFragments.clear();
+        int resumeCount = first.getFragmentResumeCount();
+
+        mFragmentSwapper.switchToStack(HOME);
+
+        assertEquals(1, other.getFragmentPauseCount());
+        assertEquals(resumeCount, first.getFragmentResumeCount());
+        assertTrue(mEnteredFragments.isEmpty());
+
+        runAll();
+
+        assertEquals(resumeCount + 1, first.getFragmentResumeCount());
+        assertEquals(1, mEnteredFragments.size());
+        assertSame(first, mEnteredFragments.get(0));
+    }
+
+    @Test
+    public void switchBackBeforeNotificationCancelsResume() {
+        TestFragment first = new TestFragment("A");
+        TestFragment other = new TestFragment("C");
+
+        mFragmentSwapper.switchToStack(HOME);
+        swap(first);
+        mFragmentSwapper.switchToStack(SEARCH);
+        swap(other);
+        mEnteredFragments.clear();
+        int firstResumeCount = first.getFragmentResumeCount();
+        int otherResumeCount = other.getFragmentResumeCount();
+
+        mFragmentSwapper.switchToStack(HOME);
+        mFragmentSwapper.switchToStack(SEARCH);
+        runAll();
+
+        //home fragment was neither resumed nor paused again
+        assertEquals(firstResumeCount, first.getFragmentResumeCount());
+        assertEquals(1, first.getFragmentPauseCount());
+        assertEquals(otherResumeCount + 1, other.getFragmentResumeCount());
+        assertEquals(1, mEnteredFragments.size());
+        assertSame(other, mEnteredFragments.get(0));
+    }
+
+    @Test
+    public void backPressedPopsCurrentStackOnly() {
+        TestFragment first = new TestFragment("A");
+        TestFragment second = new TestFragment("B");
+        TestFragment other = new TestFragment("C");
+        TestFragment otherSecond = new TestFragment("D");
+
+        mFragmentSwapper.switchToStack(HOME);
+        swap(first);
+        swap(second);
+        mFragmentSwapper.switchToStack(SEARCH);
+        swap(other);
+        swap(otherSecond);
+
+        mFragmentSwapper.onBackPressed(new PopParams.Builder().build());
+        runAll();
+
+        assertSame(other, mFragmentSwapper.getCurrentFragment());
+        assertEquals(1, getStackBackend(SEARCH).getBackStackEntryCount());
+        assertEquals(2, getStackBackend(HOME).getBackStackEntryCount());
+    }
+
+    @Test
+    public void backPressedOnLastFragmentOfOtherStackSwitchesToRootStack() {
+        TestFragment first = new TestFragment("A");
+        TestFragment other = new TestFragment("C");
+
+        mFragmentSwapper.switchToStack(HOME);
+        swap(first);
+        mFragmentSwapper.switchToStack(SEARCH);
+        swap(other);
+
+        mFragmentSwapper.onBackPressed(new PopParams.Builder().build());
+        runAll();
+
+        assertEquals(HOME, mFragmentSwapper.getCurrentStackName());
+        assertSame(first, mFragmentSwapper.getCurrentFragment());
+        assertEquals(0, mCloseRequestedCount);
+    }
+
+    @Test
+    public void backPressedOnLastFragmentOfRootStackRequestsClose() {
+        mFragmentSwapper.switchToStack(HOME);
+        swap(new TestFragment("A"));
+
+        mFragmentSwapper.onBackPressed(new PopParams.Builder().build());
+        runAll();
+
+        assertEquals(1, mCloseRequestedCount);
+    }
+
+    @Test
+    public void leastRecentlyUsedStackIsDetached() {
+        mFragmentSwapper.switchToStack(HOME);
+        swap(new TestFragment("A"));
+        mFragmentSwapper.switchToStack(SEARCH);
+        swap(new TestFragment("C"));
+        mFragmentSwapper.switchToStack(PROFILE);
+        swap(new TestFragment("E"));
+
+        assertTrue(mTransactionBackend.isDetached(getStackHost(HOME)));
+        assertFalse(mTransactionBackend.isDetached(getStackHost(SEARCH)));
+        assertFalse(mTransactionBackend.isDetached(getStackHost(PROFILE)));
+
+        mFragmentSwapper.switchToStack(HOME);
+
+        assertFalse(mTransactionBackend.isDetached(getStackHost(HOME)));
+        assertTrue(mTransactionBackend.isDetached(getStackHost(SEARCH)));
+        assertFalse(mTransactionBackend.isDetached(getStackHost(PROFILE)));
+    }
+
+    private void swap(TestFragment fragment) {
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), fragment);
+        runAll();
+    }
+
+    private Fragment getStackHost(String stackName) {
+        return mTransactionBackend.findFragmentByTag(MultiContainerFragmentSwapper.STACK_TAG_PREFIX + stackName);
+    }
+
+    private TransactionBackend getStackBackend(String stackName) {
+        return mTransactionBackend.getChildTransactionBackend(getStackHost(stackName));
+    }
+
+    private void runAll() {
+        //stacks backends are executed like child FragmentManagers, after the parent one
+        do {
+            mOperationScheduler.runAll();
+            mTransactionBackend.executePendingTransactions();
+            for (String stackName : new String[] {HOME, SEARCH, PROFILE}) {
+                Fragment host = getStackHost(stackName);
+                if (host != null) {
+                    mTransactionBackend.getChildTransactionBackend(host).executePendingTransactions();
+                }
+            }
+        } while (mOperationScheduler.size() > 0);
+    }
+}
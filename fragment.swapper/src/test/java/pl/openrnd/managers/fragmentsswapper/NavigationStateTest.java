@@ -0,0 +1,154 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class NavigationStateTest {
+
+    private static final int CONTENT_FRAME = 1;
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private QueueOperationScheduler mOperationScheduler;
+    private SingleContainerFragmentSwapper<TestFragment> mFragmentSwapper;
+
+    @Before
+    public void setUp() {
+        initialize(false);
+    }
+
+    private void initialize(boolean executeImmediately) {
+        mTransactionBackend = new InMemoryTransactionBackend();
+        mOperationScheduler = new QueueOperationScheduler();
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(mOperationScheduler)
+                .executeImmediately(executeImmediately)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(new SilentLogger())
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<TestFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+    }
+
+    @Test
+    public void swapReturnsToIdle() {
+        TestFragment fragment = new TestFragment("A");
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), fragment);
+        assertSame(NavigationState.IDLE, mFragmentSwapper.getNavigationState());
+
+        mOperationScheduler.runAll();
+
+        assertSame(NavigationState.IDLE, mFragmentSwapper.getNavigationState());
+        assertSame(fragment, mFragmentSwapper.getCurrentFragment());
+    }
+
+    @Test
+    public void popWaitsForPendingTransaction() {
+        TestFragment first = new TestFragment("A");
+        TestFragment second = new TestFragment("B");
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), first);
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), second);
+        mOperationScheduler.runAll();
+
+        mFragmentSwapper.popFragment(new PopParams.Builder().build());
+        mOperationScheduler.runAll();
+
+        assertSame(NavigationState.TRANSACTION_PENDING, mFragmentSwapper.getNavigationState());
+        assertSame(second, mFragmentSwapper.getCurrentFragment());
+
+        mTransactionBackend.executePendingTransactions();
+
+        assertSame(NavigationState.IDLE, mFragmentSwapper.getNavigationState());
+        assertSame(first, mFragmentSwapper.getCurrentFragment());
+    }
+
+    @Test
+    public void operationExecutesPendingTransactionFirst() {
+        TestFragment first = new TestFragment("A");
+        TestFragment third = new TestFragment("C");
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), first);
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), new TestFragment("B"));
+        mOperationScheduler.runAll();
+
+        mFragmentSwapper.popFragment(new PopParams.Builder().build());
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), third);
+        mOperationScheduler.runAll();
+
+        assertSame(NavigationState.IDLE, mFragmentSwapper.getNavigationState());
+        assertSame(third, mFragmentSwapper.getCurrentFragment());
+        assertEquals(2, mTransactionBackend.getBackStackEntryCount());
+        assertEquals("A", mTransactionBackend.getBackStackEntryName(0));
+        assertEquals("C", mTransactionBackend.getBackStackEntryName(1));
+    }
+
+    @Test
+    public void asyncCommitWaitsForPendingTransaction() {
+        TestFragment fragment = new TestFragment("A");
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().commitStrategy(CommitStrategy.ASYNC).build(), fragment);
+        mOperationScheduler.runAll();
+
+        assertSame(NavigationState.TRANSACTION_PENDING, mFragmentSwapper.getNavigationState());
+        assertEquals(0, mTransactionBackend.getBackStackEntryCount());
+
+        mTransactionBackend.executePendingTransactions();
+
+        assertSame(NavigationState.IDLE, mFragmentSwapper.getNavigationState());
+        assertSame(fragment, mFragmentSwapper.getCurrentFragment());
+    }
+
+    @Test
+    public void operationRequestedWhileEvaluatingIsPosted() {
+        initialize(true);
+
+        final TestFragment second = new TestFragment("B");
+        TestFragment first = new TestFragment("A") {
+            private boolean mResumed;
+
+            @Override
+            public void onFragmentResume() {
+                if (!mResumed) {
+                    mResumed = true;
+                    assertSame(NavigationState.EVALUATING, mFragmentSwapper.getNavigationState());
+                    mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), second);
+                }
+            }
+        };
+
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), first);
+
+        assertSame(NavigationState.IDLE, mFragmentSwapper.getNavigationState());
+        assertSame(first, mFragmentSwapper.getCurrentFragment());
+
+        mOperationScheduler.runAll();
+
+        assertSame(second, mFragmentSwapper.getCurrentFragment());
+    }
+}
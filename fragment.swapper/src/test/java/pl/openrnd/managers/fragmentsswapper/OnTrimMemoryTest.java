@@ -0,0 +1,115 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OnTrimMemoryTest {
+
+    private static final int CONTENT_FRAME = 1;
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private QueueOperationScheduler mOperationScheduler;
+    private FragmentPool<TestFragment> mFragmentPool;
+    private SingleContainerFragmentSwapper<TestFragment> mFragmentSwapper;
+
+    private TestFragment mHiddenFragment;
+    private TestFragment mCurrentFragment;
+
+    @Before
+    public void setUp() {
+        mTransactionBackend = new InMemoryTransactionBackend();
+        mOperationScheduler = new QueueOperationScheduler();
+        mFragmentPool = new FragmentPool<TestFragment>(2);
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(mOperationScheduler)
+                .fragmentPool(mFragmentPool)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(new SilentLogger())
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<TestFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+
+        mHiddenFragment = new TestFragment("A");
+        mCurrentFragment = new TestFragment("B");
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), mHiddenFragment);
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), mCurrentFragment);
+        mOperationScheduler.runAll();
+
+        mFragmentPool.release(mFragmentPool.obtain(TestFragment.class, null));
+    }
+
+    @Test
+    public void uiHiddenKeepsPooledAndHiddenFragments() {
+        mFragmentSwapper.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        mTransactionBackend.executePendingTransactions();
+
+        assertEquals(1, mFragmentPool.size());
+        assertFalse(mTransactionBackend.isDetached(mHiddenFragment));
+        assertEquals(0, mHiddenFragment.getReleaseMemoryCount());
+        assertEquals(0, mCurrentFragment.getReleaseMemoryCount());
+    }
+
+    @Test
+    public void runningLowReleasesPooledAndHiddenFragments() {
+        mFragmentSwapper.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        mTransactionBackend.executePendingTransactions();
+
+        assertEquals(0, mFragmentPool.size());
+        assertTrue(mTransactionBackend.isDetached(mHiddenFragment));
+        assertFalse(mTransactionBackend.isDetached(mCurrentFragment));
+        assertEquals(0, mCurrentFragment.getReleaseMemoryCount());
+    }
+
+    @Test
+    public void backgroundReleasesPooledAndHiddenFragments() {
+        mFragmentSwapper.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        mTransactionBackend.executePendingTransactions();
+
+        assertEquals(0, mFragmentPool.size());
+        assertTrue(mTransactionBackend.isDetached(mHiddenFragment));
+        assertEquals(0, mCurrentFragment.getReleaseMemoryCount());
+    }
+
+    @Test
+    public void runningCriticalAsksFragmentsToReleaseMemory() {
+        mFragmentSwapper.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        mTransactionBackend.executePendingTransactions();
+
+        assertEquals(0, mFragmentPool.size());
+        assertTrue(mTransactionBackend.isDetached(mHiddenFragment));
+        assertEquals(1, mHiddenFragment.getReleaseMemoryCount());
+        assertEquals(1, mCurrentFragment.getReleaseMemoryCount());
+    }
+}
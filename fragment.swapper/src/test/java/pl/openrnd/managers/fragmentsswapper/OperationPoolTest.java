@@ -0,0 +1,95 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class OperationPoolTest {
+
+    private ArrayList<Operation<TestFragment>> mRunOperations;
+    private OperationPool<TestFragment> mOperationPool;
+
+    @Before
+    public void setUp() {
+        mRunOperations = new ArrayList<Operation<TestFragment>>();
+        mOperationPool = new OperationPool<TestFragment>(new Operation.Callback<TestFragment>() {
+            @Override
+            public void onOperationRun(Operation<TestFragment> operation) {
+                mRunOperations.add(operation);
+            }
+        });
+    }
+
+    @Test
+    public void recycledOperationIsReusedWithClearedFields() {
+        Operation<TestFragment> swap = mOperationPool.swap(new SwapParams.Builder().build(), new TestFragment("A"));
+        swap.mCancellable = true;
+        mOperationPool.recycle(swap);
+
+        PopParams popParams = new PopParams.Builder().build();
+        Operation<TestFragment> pop = mOperationPool.pop(2, popParams);
+
+        assertSame(swap, pop);
+        assertSame(OperationType.POP, pop.mType);
+        assertEquals(2, pop.mCount);
+        assertSame(popParams, pop.mPopParams);
+        assertNull(pop.mFragment);
+        assertNull(pop.mSwapParams);
+        assertEquals(false, pop.mCancellable);
+    }
+
+    @Test
+    public void poolKeepsLimitedNumberOfOperations() {
+        ArrayList<Operation<TestFragment>> operations = new ArrayList<Operation<TestFragment>>();
+        for (int i = 0; i < 20; ++i) {
+            operations.add(mOperationPool.popTo("A", false, null));
+        }
+
+        IdentityHashMap<Operation<TestFragment>, Boolean> recycled = new IdentityHashMap<Operation<TestFragment>, Boolean>();
+        for (Operation<TestFragment> operation : operations) {
+            mOperationPool.recycle(operation);
+            recycled.put(operation, Boolean.TRUE);
+        }
+
+        int reusedCount = 0;
+        for (int i = 0; i < 20; ++i) {
+            if (recycled.containsKey(mOperationPool.pop(1, null))) {
+                ++reusedCount;
+            }
+        }
+        assertEquals(8, reusedCount);
+    }
+
+    @Test
+    public void operationRunsCallback() {
+        Operation<TestFragment> operation = mOperationPool.popTo("A", true, null);
+        operation.run();
+
+        assertEquals(1, mRunOperations.size());
+        assertSame(operation, mRunOperations.get(0));
+    }
+}
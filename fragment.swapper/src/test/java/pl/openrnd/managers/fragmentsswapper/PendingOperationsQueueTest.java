@@ -0,0 +1,148 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PendingOperationsQueueTest {
+
+    private OperationPool<TestFragment> mOperationPool;
+    private FragmentPool<TestFragment> mFragmentPool;
+    private PendingOperationsQueue<TestFragment> mQueue;
+
+    @Before
+    public void setUp() {
+        mOperationPool = new OperationPool<TestFragment>(new Operation.Callback<TestFragment>() {
+            @Override
+            public void onOperationRun(Operation<TestFragment> operation) {
+            }
+        });
+        mFragmentPool = new FragmentPool<TestFragment>(2);
+        mQueue = new PendingOperationsQueue<TestFragment>(mOperationPool, mFragmentPool);
+    }
+
+    @Test
+    public void swapFollowedByPopIsElided() {
+        mQueue.add(swap("A", true));
+        mQueue.add(pop(1));
+
+        assertEquals(0, mQueue.size());
+        assertEquals(2, mQueue.getElidedCount());
+    }
+
+    @Test
+    public void popOfMoreEntriesKeepsRemainder() {
+        mQueue.add(swap("A", true));
+        mQueue.add(pop(2));
+
+        assertEquals(1, mQueue.size());
+        assertEquals(1, mQueue.getElidedCount());
+
+        Operation<TestFragment> operation = mQueue.poll();
+        assertSame(OperationType.POP, operation.mType);
+        assertEquals(1, operation.mCount);
+    }
+
+    @Test
+    public void swapThatIsNotCancellableIsKept() {
+        mQueue.add(swap("A", false));
+        mQueue.add(pop(1));
+
+        assertEquals(2, mQueue.size());
+        assertEquals(0, mQueue.getElidedCount());
+    }
+
+    @Test
+    public void swapOfAlreadyQueuedFragmentIsKept() {
+        mQueue.add(swap("A", true));
+        mQueue.add(swap("B", true));
+        mQueue.add(swap("A", true));
+        mQueue.add(pop(1));
+
+        //second swap of A pops back to the first one, so pop does not restore B
+        assertEquals(4, mQueue.size());
+        assertEquals(0, mQueue.getElidedCount());
+    }
+
+    @Test
+    public void swapOfFragmentQueuedInSwapMultipleIsKept() {
+        mQueue.add(mOperationPool.swapMultiple(new SwapParams.Builder().build(),
+                Arrays.asList(new TestFragment("A"), new TestFragment("B"))));
+        mQueue.add(swap("A", true));
+        mQueue.add(pop(1));
+
+        //swap of A pops back to the A added by the multiple swap, so pop does not restore B
+        assertEquals(3, mQueue.size());
+        assertEquals(0, mQueue.getElidedCount());
+    }
+
+    @Test
+    public void mainContextSwapElidesQueuedOperations() {
+        mQueue.add(swap("A", false));
+        mQueue.add(pop(1));
+
+        Operation<TestFragment> mainContextSwap = mOperationPool.swap(
+                new SwapParams.Builder().mainContext(true).build(), new TestFragment("B"));
+        mQueue.add(mainContextSwap);
+
+        assertEquals(1, mQueue.size());
+        assertEquals(2, mQueue.getElidedCount());
+        assertSame(mainContextSwap, mQueue.poll());
+        assertNull(mQueue.poll());
+    }
+
+    @Test
+    public void fragmentOfElidedSwapIsReturnedToPool() {
+        TestFragment fragment = mFragmentPool.obtain(TestFragment.class, null);
+        Operation<TestFragment> operation = mOperationPool.swap(new SwapParams.Builder().build(), fragment);
+        operation.mCancellable = true;
+        mQueue.add(operation);
+        mQueue.add(pop(1));
+
+        assertEquals(1, mFragmentPool.size());
+        assertSame(fragment, mFragmentPool.obtain(TestFragment.class, null));
+    }
+
+    @Test
+    public void fragmentsOfSwapsElidedByMainContextSwapAreReturnedToPool() {
+        TestFragment fragment = mFragmentPool.obtain(TestFragment.class, null);
+        mQueue.add(mOperationPool.swap(new SwapParams.Builder().build(), fragment));
+        mQueue.add(mOperationPool.swap(new SwapParams.Builder().mainContext(true).build(), new TestFragment("B")));
+
+        assertEquals(1, mFragmentPool.size());
+        assertSame(fragment, mFragmentPool.obtain(TestFragment.class, null));
+    }
+
+    private Operation<TestFragment> swap(String name, boolean cancellable) {
+        Operation<TestFragment> operation = mOperationPool.swap(new SwapParams.Builder().build(), new TestFragment(name));
+        operation.mCancellable = cancellable;
+        return operation;
+    }
+
+    private Operation<TestFragment> pop(int count) {
+        return mOperationPool.pop(count, new PopParams.Builder().build());
+    }
+}
@@ -0,0 +1,65 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import java.util.ArrayDeque;
+
+/**
+ * OperationScheduler that queues operations until the test runs them.
+ */
+public class QueueOperationScheduler implements OperationScheduler {
+
+    private ArrayDeque<Runnable> mOperations = new ArrayDeque<Runnable>();
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.OperationScheduler
+     */
+    @Override
+    public void post(Runnable operation) {
+        mOperations.addLast(operation);
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.OperationScheduler
+     */
+    @Override
+    public boolean isSchedulerThread() {
+        return true;
+    }
+
+    /**
+     * Runs queued operations, including the ones posted while running.
+     */
+    public void runAll() {
+        Runnable operation = mOperations.pollFirst();
+        while (operation != null) {
+            operation.run();
+            operation = mOperations.pollFirst();
+        }
+    }
+
+    /**
+     * Gets number of queued operations.
+     *
+     * @return Number of operations.
+     */
+    public int size() {
+        return mOperations.size();
+    }
+}
@@ -0,0 +1,121 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.support.v4.app.Fragment;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RetainedViewsLimitTest {
+
+    private static final int CONTENT_FRAME = 1;
+    private static final int RETAINED_VIEWS_LIMIT = 2;
+
+    private CountingTransactionBackend mTransactionBackend;
+    private QueueOperationScheduler mOperationScheduler;
+    private SingleContainerFragmentSwapper<TestFragment> mFragmentSwapper;
+    private ArrayList<TestFragment> mFragments;
+
+    @Before
+    public void setUp() {
+        mTransactionBackend = new CountingTransactionBackend();
+        mOperationScheduler = new QueueOperationScheduler();
+        mFragments = new ArrayList<TestFragment>();
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(mOperationScheduler)
+                .retainedViewsLimit(RETAINED_VIEWS_LIMIT)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(new SilentLogger())
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<TestFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+    }
+
+    @Test
+    public void fragmentsBeyondLimitAreDetached() {
+        swap(6);
+
+        for (int i = 0; i < 6; ++i) {
+            //current fragment and two hidden ones below it keep their views
+            assertEquals("fragment " + i, i < 3, mTransactionBackend.isDetached(mFragments.get(i)));
+        }
+    }
+
+    @Test
+    public void fragmentIsAttachedWhenItBecomesCurrent() {
+        swap(6);
+
+        mFragmentSwapper.popFragments(3, new PopParams.Builder().build());
+        mOperationScheduler.runAll();
+        mTransactionBackend.executePendingTransactions();
+
+        assertSame(mFragments.get(2), mFragmentSwapper.getCurrentFragment());
+        assertFalse(mTransactionBackend.isDetached(mFragments.get(2)));
+        assertTrue(mTransactionBackend.isDetached(mFragments.get(1)));
+    }
+
+    @Test
+    public void swapOnDeepStackChecksOnlyEntryCrossingLimit() {
+        swap(100);
+
+        mTransactionBackend.mFindByTagCount = 0;
+        swap(1);
+
+        //current fragment and the one entry that crossed the limit
+        assertEquals(2, mTransactionBackend.mFindByTagCount);
+        assertTrue(mTransactionBackend.isDetached(mFragments.get(97)));
+        assertFalse(mTransactionBackend.isDetached(mFragments.get(98)));
+    }
+
+    private void swap(int count) {
+        for (int i = 0; i < count; ++i) {
+            TestFragment fragment = new TestFragment("fragment" + mFragments.size());
+            mFragments.add(fragment);
+            mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), fragment);
+            mOperationScheduler.runAll();
+            mTransactionBackend.executePendingTransactions();
+        }
+    }
+
+    private static class CountingTransactionBackend extends InMemoryTransactionBackend {
+        private int mFindByTagCount;
+
+        @Override
+        public Fragment findFragmentByTag(String tag) {
+            ++mFindByTagCount;
+            return super.findFragmentByTag(tag);
+        }
+    }
+}
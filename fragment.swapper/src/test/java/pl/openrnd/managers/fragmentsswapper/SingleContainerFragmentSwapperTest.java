@@ -0,0 +1,209 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import android.support.v4.app.Fragment;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SingleContainerFragmentSwapperTest {
+
+    private static final int CONTENT_FRAME = 1;
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private QueueOperationScheduler mOperationScheduler;
+    private SingleContainerFragmentSwapper<TestFragment> mFragmentSwapper;
+
+    private ArrayList<Fragment> mEnteredFragments;
+    private int mCloseRequestsCount;
+
+    @Before
+    public void setUp() {
+        mTransactionBackend = new InMemoryTransactionBackend();
+        mOperationScheduler = new QueueOperationScheduler();
+        mEnteredFragments = new ArrayList<Fragment>();
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(mOperationScheduler)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(new SilentLogger())
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<TestFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+        mFragmentSwapper.setOnFragmentSwapperListener(new OnFragmentSwapperListener() {
+            @Override
+            public void onFragmentEntered(FragmentSwapper fragmentSwapper, Fragment fragment) {
+                mEnteredFragments.add(fragment);
+            }
+
+            @Override
+            public void onCloseRequested(FragmentSwapper fragmentSwapper) {
+                ++mCloseRequestsCount;
+            }
+        });
+    }
+
+    @Test
+    public void swapAddsBackStackEntry() {
+        TestFragment first = swap("A");
+        TestFragment second = swap("B");
+
+        assertNames("A", "B");
+        assertSame(second, mFragmentSwapper.getCurrentFragment());
+        assertTrue(mTransactionBackend.isHidden(first));
+        assertEquals(Arrays.<Fragment>asList(first, second), mEnteredFragments);
+    }
+
+    @Test
+    public void swapOfFragmentInBackStackPopsBackToIt() {
+        swap("A");
+        swap("B");
+        swap("C");
+
+        TestFragment fragment = swap("B");
+
+        assertNames("A", "B");
+        assertSame(fragment, mFragmentSwapper.getCurrentFragment());
+    }
+
+    @Test
+    public void mainContextSwapClearsBackStack() {
+        swap("A");
+        swap("B");
+
+        TestFragment fragment = new TestFragment("C");
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().mainContext(true).build(), fragment);
+        mOperationScheduler.runAll();
+
+        assertNames("C");
+        assertSame(fragment, mFragmentSwapper.getCurrentFragment());
+        assertEquals(1, mTransactionBackend.getAddedFragmentsCount());
+    }
+
+    @Test
+    public void popFragmentsPopsToPreviousFragment() {
+        swap("A");
+        TestFragment second = swap("B");
+        swap("C");
+        swap("D");
+
+        mFragmentSwapper.popFragments(2, new PopParams.Builder().build());
+        runAll();
+
+        assertNames("A", "B");
+        assertSame(second, mFragmentSwapper.getCurrentFragment());
+    }
+
+    @Test
+    public void popToPopsUpToNamedFragment() {
+        TestFragment first = swap("A");
+        swap("B");
+        swap("C");
+
+        mFragmentSwapper.popTo("A", false, new PopParams.Builder().build());
+        runAll();
+
+        assertNames("A");
+        assertSame(first, mFragmentSwapper.getCurrentFragment());
+    }
+
+    @Test
+    public void popOfLastFragmentRequestsClose() {
+        swap("A");
+
+        mFragmentSwapper.popFragment(new PopParams.Builder().build());
+        runAll();
+
+        assertNames("A");
+        assertEquals(1, mCloseRequestsCount);
+    }
+
+    @Test
+    public void resultValueIsPassedToPreviousFragment() {
+        TestFragment first = swap("A");
+        TestFragment second = swap("B");
+
+        Object value = new Object();
+        second.setResult(FragmentDescriptor.RESULT_OK, value);
+        mFragmentSwapper.popFragment(new PopParams.Builder().build());
+        runAll();
+
+        assertSame(first, mFragmentSwapper.getCurrentFragment());
+        assertEquals(FragmentDescriptor.RESULT_OK, first.getReceivedResultCode());
+        assertSame(value, first.getReceivedResultValue());
+    }
+
+    @Test
+    public void swapFragmentsAddsFragmentsBelowTopWithoutViews() {
+        TestFragment first = new TestFragment("A");
+        TestFragment second = new TestFragment("B");
+        TestFragment third = new TestFragment("C");
+        mFragmentSwapper.swapFragments(new SwapParams.Builder().build(), Arrays.asList(first, second, third));
+        mOperationScheduler.runAll();
+
+        assertNames("A", "B", "C");
+        assertSame(third, mFragmentSwapper.getCurrentFragment());
+        assertTrue(mTransactionBackend.isDetached(first));
+        assertTrue(mTransactionBackend.isDetached(second));
+
+        mFragmentSwapper.popFragment(new PopParams.Builder().build());
+        runAll();
+
+        assertSame(second, mFragmentSwapper.getCurrentFragment());
+        assertFalse(mTransactionBackend.isDetached(second));
+        assertTrue(mTransactionBackend.isDetached(first));
+    }
+
+    private TestFragment swap(String name) {
+        TestFragment fragment = new TestFragment(name);
+        mFragmentSwapper.swapFragment(new SwapParams.Builder().build(), fragment);
+        mOperationScheduler.runAll();
+        return fragment;
+    }
+
+    private void runAll() {
+        mOperationScheduler.runAll();
+        //pops are executed asynchronously, as with FragmentManager
+        mTransactionBackend.executePendingTransactions();
+        mOperationScheduler.runAll();
+    }
+
+    private void assertNames(String... names) {
+        assertEquals(names.length, mTransactionBackend.getBackStackEntryCount());
+        for (int i = 0; i < names.length; ++i) {
+            assertEquals(names[i], mTransactionBackend.getBackStackEntryName(i));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package pl.openrnd.managers.fragmentsswapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SwapPopAllocationTest {
+
+    private static final int CONTENT_FRAME = 1;
+    private static final int WARM_UP_CYCLES = 20000;
+    private static final int MEASURED_CYCLES = 10000;
+
+    private InMemoryTransactionBackend mTransactionBackend;
+    private QueueOperationScheduler mOperationScheduler;
+    private SingleContainerFragmentSwapper<TestFragment> mFragmentSwapper;
+    private AllocationCounter mAllocationCounter;
+
+    private SwapParams mSwapParams;
+    private PopParams mPopParams;
+    private TestFragment mFragment;
+
+    @Before
+    public void setUp() {
+        mAllocationCounter = new AllocationCounter();
+        mTransactionBackend = new InMemoryTransactionBackend();
+        mOperationScheduler = new QueueOperationScheduler();
+
+        InitializationParams initializationParams = new InitializationParams.Builder()
+                .transactionBackend(mTransactionBackend)
+                .operationScheduler(mOperationScheduler)
+                .executeImmediately(true)
+                .contentFrame(CONTENT_FRAME)
+                .screenManager(new ScreenManager() {
+                    @Override
+                    public void onMainScreenRequested() {
+                    }
+                })
+                .logger(new SilentLogger())
+                .build();
+
+        mFragmentSwapper = new SingleContainerFragmentSwapper<TestFragment>();
+        mFragmentSwapper.initialize(initializationParams);
+
+        mSwapParams = new SwapParams.Builder().build();
+        mPopParams = new PopParams.Builder().build();
+        mFragment = new TestFragment("A");
+
+        mFragmentSwapper.swapFragment(mSwapParams, new TestFragment("root"));
+        runAll();
+    }
+
+    @Test
+    public void steadyStateSwapAndPopDoNotAllocate() {
+        swapAndPop(WARM_UP_CYCLES);
+
+        long before = mAllocationCounter.getAllocatedBytes();
+        swapAndPop(MEASURED_CYCLES);
+        long allocated = mAllocationCounter.getAllocatedBytes() - before;
+
+        assertEquals(0, allocated);
+        assertEquals(1, mTransactionBackend.getBackStackEntryCount());
+    }
+
+    private void swapAndPop(int cycles) {
+        for (int i = 0; i < cycles; ++i) {
+            mFragmentSwapper.swapFragment(mSwapParams, mFragment);
+            runAll();
+            mFragmentSwapper.popFragment(mPopParams);
+            runAll();
+        }
+    }
+
+    private void runAll() {
+        mOperationScheduler.runAll();
+        mTransactionBackend.executePendingTransactions();
+    }
+}
@@ -0,0 +1,155 @@
+/******************************************************************************
+ *
+ *  2015 (C) Copyright Open-RnD Sp. z o.o.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package pl.openrnd.managers.fragmentsswapper;
+
+/**
+ * BaseFragment with name provided by the test.
+ */
+public class TestFragment extends BaseFragment {
+
+    private String mName;
+
+    private int mReceivedResultCode = RESULT_CANCELED;
+    private Object mReceivedResultValue;
+    private int mReleaseMemoryCount;
+    private int mFragmentResumeCount;
+    private int mFragmentPauseCount;
+
+    /**
+     * Class constructor used by FragmentPool.
+     */
+    public TestFragment() {
+        this(TestFragment.class.getSimpleName());
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param name Fragment name.
+     */
+    public TestFragment(String name) {
+        mName = name;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onFragmentResult(Integer requestCode, int resultCode, Object value) {
+        super.onFragmentResult(requestCode, resultCode, value);
+
+        mReceivedResultCode = resultCode;
+        mReceivedResultValue = value;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onReleaseMemory(int level) {
+        super.onReleaseMemory(level);
+
+        ++mReleaseMemoryCount;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onFragmentResume() {
+        super.onFragmentResume();
+
+        ++mFragmentResumeCount;
+    }
+
+    /**
+     * @see pl.openrnd.managers.fragmentsswapper.FragmentDescriptor
+     */
+    @Override
+    public void onFragmentPause() {
+        super.onFragmentPause();
+
+        ++mFragmentPauseCount;
+    }
+
+    /**
+     * Gets number of onFragmentResume() calls.
+     *
+     * @return Number of calls.
+     */
+    public int getFragmentResumeCount() {
+        return mFragmentResumeCount;
+    }
+
+    /**
+     * Gets number of onFragmentPause() calls.
+     *
+     * @return Number of calls.
+     */
+    public int getFragmentPauseCount() {
+        return mFragmentPauseCount;
+    }
+
+    /**
+     * Gets number of onReleaseMemory() calls.
+     *
+     * @return Number of calls.
+     */
+    public int getReleaseMemoryCount() {
+        return mReleaseMemoryCount;
+    }
+
+    /**
+     * Gets result code received with the last result value.
+     *
+     * @return Result code.
+     */
+    public int getReceivedResultCode() {
+        return mReceivedResultCode;
+    }
+
+    /**
+     * Gets the last received result value.
+     *
+     * @return Result value or null if not received.
+     */
+    public Object getReceivedResultValue() {
+        return mReceivedResultValue;
+    }
+
+    /**
+     * Fragment of other class, used by FragmentPool tests.
+     */
+    public static class OtherFragment extends TestFragment {
+    }
+
+    /**
+     * Fragment of third class, used by FragmentPool tests.
+     */
+    public static class ThirdFragment extends TestFragment {
+    }
+}